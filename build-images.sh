@@ -1,11 +1,20 @@
-mvn clean install
+mvn clean install -Paot
 
 mv target/seasonsforce-ms-availability-api-1.0-SNAPSHOT.jar api-image/seasonsforce-ms-availability-api-1.0-SNAPSHOT.jar
 
-cd api-image
+cd postgres-image
 
-docker build -t availability-api .
+docker build -t availability-db .
 
-cd ../postgres-image
+# Throwaway database for the training run of the api image build
+docker run -d --rm --name availability-db-training -e POSTGRES_PASSWORD=postgres -p 55432:5432 availability-db
 
-docker build -t availability-db .
\ No newline at end of file
+until docker exec availability-db-training pg_isready -h 127.0.0.1 -U postgres > /dev/null; do
+  sleep 1
+done
+
+cd ../api-image
+
+docker build --network host -t availability-api .
+
+docker stop availability-db-training
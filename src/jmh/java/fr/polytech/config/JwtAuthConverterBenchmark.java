@@ -0,0 +1,64 @@
+package fr.polytech.config;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark the conversion of a decoded token into an authentication, done on every authenticated request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtAuthConverterBenchmark {
+
+    private static final String RESOURCE_ID = "availability-api";
+
+    private JwtAuthConverter jwtAuthConverter;
+
+    private Jwt jwt;
+
+    @Setup
+    public void setup() {
+        jwtAuthConverter = new JwtAuthConverter("sub", RESOURCE_ID);
+
+        Map<String, Object> resourceAccess = new HashMap<>();
+        resourceAccess.put(RESOURCE_ID, Map.of("roles", List.of("client_candidate", "client_recruiter")));
+
+        Instant issuedAt = Instant.now();
+        jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .jti(UUID.randomUUID().toString())
+                .subject(UUID.randomUUID().toString())
+                .claim("scope", "openid profile email")
+                .claim("resource_access", resourceAccess)
+                .issuedAt(issuedAt)
+                .expiresAt(issuedAt.plusSeconds(3600))
+                .build();
+    }
+
+    /**
+     * Conversion of a replayed token, served from the authorities cache.
+     */
+    @Benchmark
+    public AbstractAuthenticationToken convert() {
+        return jwtAuthConverter.convert(jwt);
+    }
+
+    /**
+     * Authority extraction done on a cache miss, the baseline for the allocation comparison.
+     */
+    @Benchmark
+    public Set<GrantedAuthority> extractAuthorities() {
+        return jwtAuthConverter.extractAuthorities(jwt);
+    }
+}
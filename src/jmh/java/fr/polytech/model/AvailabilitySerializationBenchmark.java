@@ -0,0 +1,81 @@
+package fr.polytech.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Benchmark the encoding and decoding of availability lists as returned by the list endpoints,
+ * in JSON and in CBOR. The payload sizes, raw and gzipped, are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AvailabilitySerializationBenchmark {
+
+    @Param({"1", "100", "1000"})
+    private int size;
+
+    @Param({"json", "cbor"})
+    private String format;
+
+    private ObjectMapper objectMapper;
+
+    private List<Availability> availabilities;
+
+    private byte[] payload;
+
+    @Setup
+    public void setup() throws IOException {
+        // Same defaults as the object mappers of the application
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        if ("cbor".equals(format)) {
+            builder.factory(new CBORFactory());
+        }
+        objectMapper = builder.build();
+
+        availabilities = new ArrayList<>(size);
+        long start = 1_700_000_000_000L;
+        for (int i = 0; i < size; i++) {
+            Availability availability = new Availability();
+            availability.setId(UUID.randomUUID());
+            availability.setJobCategoryId(UUID.randomUUID());
+            availability.setJobTitle("Job title " + i);
+            availability.setStartDate(Instant.ofEpochMilli(start + TimeUnit.DAYS.toMillis(i)));
+            availability.setEndDate(Instant.ofEpochMilli(start + TimeUnit.DAYS.toMillis(i + 30)));
+            availability.setPlaceList(List.of("Nantes", "Rennes", "Angers"));
+            availabilities.add(availability);
+        }
+
+        payload = objectMapper.writeValueAsBytes(availabilities);
+        System.out.println(format + " payload of " + size + " availabilities: " + payload.length + " bytes, " + gzippedLength(payload) + " bytes gzipped");
+    }
+
+    @Benchmark
+    public byte[] serializeAvailabilities() throws Exception {
+        return objectMapper.writeValueAsBytes(availabilities);
+    }
+
+    @Benchmark
+    public Availability[] deserializeAvailabilities() throws Exception {
+        return objectMapper.readValue(payload, Availability[].class);
+    }
+
+    private static int gzippedLength(byte[] bytes) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+            gzipOutputStream.write(bytes);
+        }
+        return outputStream.size();
+    }
+}
@@ -0,0 +1,69 @@
+package fr.polytech.service;
+
+import fr.polytech.model.Availability;
+import fr.polytech.model.AvailabilityDTO;
+import fr.polytech.model.DetailedAvailabilityDTO;
+import fr.polytech.model.JobCategoryDTO;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark the per-request work of the availability service that does not touch the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AvailabilityServiceBenchmark {
+
+    private AvailabilityService availabilityService;
+
+    private AvailabilityDTO availabilityDTO;
+
+    private Availability availability;
+
+    private JobCategoryDTO jobCategory;
+
+    @Setup
+    public void setup() {
+        availabilityService = new AvailabilityService();
+
+        Instant startDate = Instant.ofEpochMilli(1_700_000_000_000L);
+        Instant endDate = Instant.ofEpochMilli(1_700_000_000_000L + TimeUnit.DAYS.toMillis(30));
+        List<String> placeList = List.of("Nantes", "Rennes", "Angers");
+
+        availabilityDTO = new AvailabilityDTO();
+        availabilityDTO.setJobCategoryId(UUID.randomUUID());
+        availabilityDTO.setJobTitle("Waiter");
+        availabilityDTO.setStartDate(startDate);
+        availabilityDTO.setEndDate(endDate);
+        availabilityDTO.setPlaceList(placeList);
+
+        availability = new Availability();
+        availability.setId(UUID.randomUUID());
+        availability.setJobCategoryId(availabilityDTO.getJobCategoryId());
+        availability.setJobTitle("Waiter");
+        availability.setStartDate(startDate);
+        availability.setEndDate(endDate);
+        availability.setPlaceList(placeList);
+
+        jobCategory = new JobCategoryDTO();
+        jobCategory.setId(availabilityDTO.getJobCategoryId());
+        jobCategory.setName("Restaurant");
+    }
+
+    @Benchmark
+    public void checkAttributes(Blackhole blackhole) {
+        availabilityService.checkAttributes(availabilityDTO);
+        blackhole.consume(availabilityDTO);
+    }
+
+    @Benchmark
+    public DetailedAvailabilityDTO toDetailedAvailabilityDTO() {
+        return availabilityService.toDetailedAvailabilityDTO(availability, jobCategory);
+    }
+}
@@ -0,0 +1,24 @@
+package fr.polytech.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+@Configuration
+public class CborConfig {
+
+    /**
+     * Read and write application/cbor, negotiated from the Accept and Content-Type headers alongside JSON.
+     * The mapper comes from the application builder so that both formats share the same modules and features.
+     * The converter is also picked up by the RestTemplate of the job category client.
+     *
+     * @param objectMapperBuilder Builder of the application object mapper
+     * @return MappingJackson2CborHttpMessageConverter
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        return new MappingJackson2CborHttpMessageConverter(objectMapperBuilder.factory(new CBORFactory()).build());
+    }
+}
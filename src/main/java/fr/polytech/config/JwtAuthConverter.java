@@ -1,5 +1,10 @@
 package fr.polytech.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
@@ -10,23 +15,80 @@ import org.springframework.security.oauth2.server.resource.authentication.JwtAut
 import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 @Component
 public class JwtAuthConverter implements Converter<Jwt, AbstractAuthenticationToken> {
 
+    /**
+     * Maximum number of tokens whose authorities are cached.
+     */
+    private static final int MAX_CACHED_TOKENS = 10_000;
+
+    /**
+     * Shared authority instances, there is only a handful of distinct roles.
+     */
+    private static final Map<String, GrantedAuthority> INTERNED_AUTHORITIES = new ConcurrentHashMap<>();
+
     private final JwtGrantedAuthoritiesConverter jwtGrantedAuthoritiesConverter;
 
-    public JwtAuthConverter() {
-        this.jwtGrantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
+    /**
+     * Authorities of the tokens already seen, each entry expires with its token.
+     */
+    private final Cache<String, CachedAuthorities> authoritiesCache;
+
+    private record CachedAuthorities(Set<GrantedAuthority> authorities, Instant expiresAt) {
     }
 
-    private final String principleAttribute = System.getenv("PRINCIPLE_ATTRIBUTE_NAME");
-    private final String resourceId = System.getenv("RESOURCE_ID");
+    /**
+     * Name of the claim holding the principal name.
+     */
+    private final String principleAttribute;
+
+    /**
+     * Client whose roles become ROLE_ authorities.
+     */
+    private final String resourceId;
+
+    /**
+     * Create a converter configured from the environment of the application, which includes the environment variables.
+     *
+     * @param principleAttribute Name of the claim holding the principal name
+     * @param resourceId         Client whose roles become ROLE_ authorities
+     */
+    @Autowired
+    public JwtAuthConverter(@Value("${PRINCIPLE_ATTRIBUTE_NAME:#{null}}") String principleAttribute,
+                            @Value("${RESOURCE_ID:#{null}}") String resourceId) {
+        this.principleAttribute = principleAttribute;
+        this.resourceId = resourceId;
+        this.jwtGrantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
+        this.authoritiesCache = Caffeine.newBuilder()
+                .maximumSize(MAX_CACHED_TOKENS)
+                .expireAfter(new Expiry<String, CachedAuthorities>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedAuthorities value, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), value.expiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedAuthorities value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedAuthorities value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
 
     /**
      * Convert a Jwt to an AbstractAuthenticationToken
@@ -36,10 +98,7 @@ public class JwtAuthConverter implements Converter<Jwt, AbstractAuthenticationTo
      */
     @Override
     public AbstractAuthenticationToken convert(@NonNull Jwt jwt) {
-        Collection<GrantedAuthority> authorities = Stream.concat(
-                jwtGrantedAuthoritiesConverter.convert(jwt).stream(),
-                extractResourceRoles(jwt).stream()
-        ).collect(Collectors.toSet());
+        Collection<GrantedAuthority> authorities = getAuthorities(jwt);
 
         return new JwtAuthenticationToken(
                 jwt,
@@ -48,6 +107,45 @@ public class JwtAuthConverter implements Converter<Jwt, AbstractAuthenticationTo
         );
     }
 
+    /**
+     * Get the authorities of a Jwt, from the cache when the token was already seen
+     *
+     * @param jwt Jwt to get the authorities of
+     * @return Collection of GrantedAuthority
+     */
+    private Collection<GrantedAuthority> getAuthorities(Jwt jwt) {
+        Instant expiresAt = jwt.getExpiresAt();
+        if (expiresAt == null) {
+            // A token without expiry could stay cached forever
+            return extractAuthorities(jwt);
+        }
+        String key = jwt.getId() != null ? jwt.getId() : jwt.getTokenValue();
+        return authoritiesCache.get(key, k -> new CachedAuthorities(extractAuthorities(jwt), expiresAt)).authorities();
+    }
+
+    /**
+     * Extract the scope and resource authorities from the Jwt
+     *
+     * @param jwt Jwt to extract the authorities from
+     * @return Set of GrantedAuthority
+     */
+    Set<GrantedAuthority> extractAuthorities(Jwt jwt) {
+        return Stream.concat(
+                jwtGrantedAuthoritiesConverter.convert(jwt).stream().map(authority -> intern(authority.getAuthority())),
+                extractResourceRoles(jwt).stream()
+        ).collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Get the shared instance of an authority
+     *
+     * @param authority Authority name
+     * @return GrantedAuthority
+     */
+    private static GrantedAuthority intern(String authority) {
+        return INTERNED_AUTHORITIES.computeIfAbsent(authority, SimpleGrantedAuthority::new);
+    }
+
     /**
      * Get the name of the principle from the Jwt
      *
@@ -81,7 +179,7 @@ public class JwtAuthConverter implements Converter<Jwt, AbstractAuthenticationTo
         resourceRoles = (Collection<String>) resource.get("roles");
         return resourceRoles
                 .stream()
-                .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+                .map(role -> intern("ROLE_" + role))
                 .collect(Collectors.toSet());
     }
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package fr.polytech.config;
+
+import fr.polytech.outbox.OutboxRelay;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Run the outbox relay on a schedule, unless disabled with availability.outbox.relay.enabled=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "availability.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxConfig {
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    /**
+     * Publish the pending events.
+     */
+    @Scheduled(fixedDelayString = "${availability.outbox.relay.interval-ms:1000}")
+    public void relayOutbox() {
+        outboxRelay.relay();
+    }
+
+    /**
+     * Delete the events published longer ago than the retention.
+     */
+    @Scheduled(fixedDelayString = "${availability.outbox.purge.interval-ms:3600000}")
+    public void purgeOutbox() {
+        outboxRelay.purge();
+    }
+}
@@ -0,0 +1,13 @@
+package fr.polytech.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Run the scheduled jobs, such as the periodic reload of the availability indexes.
+ * The outbox relay jobs are only declared when the relay is enabled, see {@link OutboxConfig}.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,59 @@
+package fr.polytech.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import fr.polytech.model.Availability;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+@Configuration
+public class SecondLevelCacheConfig {
+
+    private static final List<String> REGIONS = List.of(Availability.CACHE_REGION, Availability.PLACE_LIST_CACHE_REGION);
+
+    /**
+     * Create the local cache manager of the Hibernate second-level cache, with a bounded region per cached mapping
+     *
+     * @param maximumSize      Maximum number of entries per region
+     * @param expireAfterWrite Time after which an entry is evicted
+     * @return CacheManager holding the regions
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(@Value("${availability.second-level-cache.maximum-size:10000}") long maximumSize,
+                                                @Value("${availability.second-level-cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        // A manager of its own, so that several application contexts in the same JVM never share regions
+        URI uri = URI.create("availability-second-level-cache-" + UUID.randomUUID());
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(uri, SecondLevelCacheConfig.class.getClassLoader());
+        for (String region : REGIONS) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(maximumSize));
+            configuration.setExpireAfterWrite(OptionalLong.of(expireAfterWrite.toNanos()));
+            configuration.setStatisticsEnabled(true);
+            cacheManager.createCache(region, configuration);
+        }
+        return cacheManager;
+    }
+
+    /**
+     * Hand the cache manager to Hibernate
+     *
+     * @param secondLevelCacheManager Cache manager of the second-level cache
+     * @return HibernatePropertiesCustomizer
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+    }
+}
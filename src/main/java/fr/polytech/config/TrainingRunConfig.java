@@ -0,0 +1,39 @@
+package fr.polytech.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+/**
+ * Stop the application as soon as it has started when availability.startup.exit-on-started=true.
+ * Used by the image build to record the class data sharing archive from a startup, so the flag is read
+ * at runtime rather than through a condition, which the ahead-of-time processing would fix at build time.
+ */
+@Configuration
+public class TrainingRunConfig {
+
+    /**
+     * Initialize the logger.
+     */
+    private final Logger logger = LoggerFactory.getLogger(TrainingRunConfig.class);
+
+    @Value("${availability.startup.exit-on-started:false}")
+    private boolean exitOnStarted;
+
+    /**
+     * Exit once the context is refreshed, before the in-memory indexes are loaded from the table.
+     *
+     * @param event Application started event.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void onApplicationStarted(ApplicationStartedEvent event) {
+        if (exitOnStarted) {
+            logger.info("Training run started in " + event.getTimeTaken().toMillis() + " ms, exiting");
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package fr.polytech.event;
+
+import fr.polytech.model.Availability;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Application event published by the availability service after each write.
+ * It carries a copy of the written values so that listeners never touch the (possibly detached) entity.
+ */
+public class AvailabilityChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Type type;
+    private final UUID id;
+    private final UUID jobCategoryId;
+    private final Instant startDate;
+    private final Instant endDate;
+    private final List<String> placeList;
+
+    private AvailabilityChangedEvent(Type type, UUID id, UUID jobCategoryId, Instant startDate, Instant endDate, List<String> placeList) {
+        this.type = type;
+        this.id = id;
+        this.jobCategoryId = jobCategoryId;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.placeList = placeList;
+    }
+
+    /**
+     * Create an event for a created availability.
+     *
+     * @param availability Created availability.
+     * @return AvailabilityChangedEvent
+     */
+    public static AvailabilityChangedEvent created(Availability availability) {
+        return of(Type.CREATED, availability);
+    }
+
+    /**
+     * Create an event for an updated availability.
+     *
+     * @param availability Updated availability.
+     * @return AvailabilityChangedEvent
+     */
+    public static AvailabilityChangedEvent updated(Availability availability) {
+        return of(Type.UPDATED, availability);
+    }
+
+    /**
+     * Create an event for a deleted availability.
+     *
+     * @param id Deleted availability id.
+     * @return AvailabilityChangedEvent
+     */
+    public static AvailabilityChangedEvent deleted(UUID id) {
+        return new AvailabilityChangedEvent(Type.DELETED, id, null, null, null, List.of());
+    }
+
+    private static AvailabilityChangedEvent of(Type type, Availability availability) {
+        List<String> placeList = availability.getPlaceList() == null ? List.of() : new ArrayList<>(availability.getPlaceList());
+        return new AvailabilityChangedEvent(type, availability.getId(), availability.getJobCategoryId(), availability.getStartDate(), availability.getEndDate(), placeList);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public UUID getJobCategoryId() {
+        return jobCategoryId;
+    }
+
+    public Instant getStartDate() {
+        return startDate;
+    }
+
+    public Instant getEndDate() {
+        return endDate;
+    }
+
+    public List<String> getPlaceList() {
+        return placeList;
+    }
+}
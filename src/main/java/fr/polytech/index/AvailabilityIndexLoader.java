@@ -0,0 +1,53 @@
+package fr.polytech.index;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Load the in-memory availability indexes from the table.
+ * They are all built from a single streamed read, instead of each one reading the whole table on its own.
+ * Each instance only receives its own writes, so the indexes are reloaded periodically to catch up with the writes
+ * served by the other instances: with several instances, searches and statistics lag behind them by up to the
+ * reload period.
+ */
+@Component
+public class AvailabilityIndexLoader {
+
+    /**
+     * Initialize the logger.
+     */
+    private final Logger logger = LoggerFactory.getLogger(AvailabilityIndexLoader.class);
+
+    @Autowired
+    private List<ReloadableIndex> indexes;
+
+    @Autowired
+    private AvailabilitySnapshotReader snapshotReader;
+
+    /**
+     * Load every availability into the indexes once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        logger.info("Loading " + indexes.size() + " availability indexes");
+        ReloadableIndex.reload(indexes, snapshotReader::read);
+        logger.debug("Loaded availability indexes");
+    }
+
+    /**
+     * Reload the indexes, catching up with the writes of the other instances and repairing any drift.
+     */
+    @Scheduled(cron = "${availability.indexes.reload.cron:0 */5 * * * *}")
+    public void refresh() {
+        logger.info("Reloading " + indexes.size() + " availability indexes");
+        ReloadableIndex.reload(indexes, snapshotReader::read);
+        logger.debug("Reloaded availability indexes");
+    }
+}
@@ -0,0 +1,31 @@
+package fr.polytech.index;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Report the in-memory availability indexes as out of service until they are loaded from the table.
+ * It is part of the readiness group, so an instance only receives traffic once its searches can answer.
+ */
+@Component
+public class AvailabilityIndexesHealthIndicator implements HealthIndicator {
+
+    @Autowired
+    private List<ReloadableIndex> indexes;
+
+    @Override
+    public Health health() {
+        Health.Builder builder = Health.up();
+        for (ReloadableIndex index : indexes) {
+            if (!index.isLoaded()) {
+                builder.outOfService();
+            }
+            builder.withDetail(index.getClass().getSimpleName(), index.isLoaded() ? "loaded" : "loading");
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,239 @@
+package fr.polytech.index;
+
+import fr.polytech.event.AvailabilityChangedEvent;
+import fr.polytech.model.Availability;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * In-memory interval tree over the availability date ranges.
+ * It is an AVL tree ordered by (start date, id) where each node also keeps the greatest end date of its subtree,
+ * so an overlap query only descends into subtrees that can contain a match: O(log n + k).
+ * Being fed by the writes of this instance only between two reloads, it misses the availabilities created through the
+ * other instances until the next reload, and the ids it returns must be checked again against the loaded rows.
+ */
+@Component
+public class AvailabilityIntervalIndex extends ReloadableIndex {
+
+    @Autowired
+    private AvailabilitySnapshotReader snapshotReader;
+
+    private final Map<UUID, Node> nodesById = new HashMap<>();
+
+    private Node root;
+
+    private static final class Node {
+        private final UUID id;
+        private final long start;
+        private final long end;
+        private long maxEnd;
+        private int height = 1;
+        private Node left;
+        private Node right;
+
+        private Node(UUID id, long start, long end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+    }
+
+    @Override
+    protected List<Availability> readSnapshot() {
+        return snapshotReader.read();
+    }
+
+    @Override
+    protected void clear() {
+        root = null;
+        nodesById.clear();
+    }
+
+    @Override
+    protected void add(Availability availability) {
+        put(availability.getId(), availability.getStartDate() == null ? null : availability.getStartDate().toEpochMilli(), availability.getEndDate() == null ? null : availability.getEndDate().toEpochMilli());
+    }
+
+    @Override
+    protected void apply(AvailabilityChangedEvent event) {
+        remove(event.getId());
+        if (event.getType() != AvailabilityChangedEvent.Type.DELETED) {
+            put(event.getId(), event.getStartDate() == null ? null : event.getStartDate().toEpochMilli(), event.getEndDate() == null ? null : event.getEndDate().toEpochMilli());
+        }
+    }
+
+    /**
+     * Find the ids of the availabilities overlapping a window, bounds included.
+     *
+     * @param from Window start (epoch millis).
+     * @param to   Window end (epoch millis).
+     * @return Ids of the overlapping availabilities, ordered by start date.
+     */
+    public List<UUID> findOverlapping(long from, long to) {
+        List<UUID> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            collectOverlapping(root, from, to, result);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of indexed availabilities.
+     *
+     * @return Number of indexed availabilities.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodesById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(UUID id, Long start, Long end) {
+        // Availabilities without a complete date range can never overlap a window
+        if (id == null || start == null || end == null) {
+            return;
+        }
+        Node node = new Node(id, start, end);
+        root = insert(root, node);
+        nodesById.put(id, node);
+    }
+
+    private void remove(UUID id) {
+        Node node = nodesById.remove(id);
+        if (node != null) {
+            root = delete(root, node.start, node.id);
+        }
+    }
+
+    private void collectOverlapping(Node node, long from, long to, List<UUID> result) {
+        if (node == null || node.maxEnd < from) {
+            return;
+        }
+        collectOverlapping(node.left, from, to, result);
+        if (node.start > to) {
+            // Every node of the right subtree starts even later
+            return;
+        }
+        if (node.end >= from) {
+            result.add(node.id);
+        }
+        collectOverlapping(node.right, from, to, result);
+    }
+
+    private static int compare(long start, UUID id, Node node) {
+        int byStart = Long.compare(start, node.start);
+        return byStart != 0 ? byStart : id.compareTo(node.id);
+    }
+
+    private static Node insert(Node node, Node inserted) {
+        if (node == null) {
+            return inserted;
+        }
+        if (compare(inserted.start, inserted.id, node) < 0) {
+            node.left = insert(node.left, inserted);
+        } else {
+            node.right = insert(node.right, inserted);
+        }
+        return balance(node);
+    }
+
+    private static Node delete(Node node, long start, UUID id) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = compare(start, id, node);
+        if (comparison < 0) {
+            node.left = delete(node.left, start, id);
+        } else if (comparison > 0) {
+            node.right = delete(node.right, start, id);
+        } else {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = deleteMin(node.right);
+            successor.left = node.left;
+            return balance(successor);
+        }
+        return balance(node);
+    }
+
+    private static Node deleteMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = deleteMin(node.left);
+        return balance(node);
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        long maxEnd = node.end;
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static Node balance(Node node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+}
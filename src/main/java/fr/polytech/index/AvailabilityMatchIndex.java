@@ -0,0 +1,272 @@
+package fr.polytech.index;
+
+import fr.polytech.event.AvailabilityChangedEvent;
+import fr.polytech.model.Availability;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory matching index of the availabilities against job offers.
+ * Each availability gets a dense ordinal, set in a compressed bitmap per place, per job category
+ * and per day it covers, so finding the candidates of an offer is a union and intersection of bitmaps.
+ * Only the candidates are then scored, by overlap with the offer window and by share of the offer places.
+ * Availabilities longer than availability.max-duration, which the service rejects but older rows may hold,
+ * are kept out of the day buckets and always taken as candidates, so a single row never fills millions of buckets.
+ */
+@Component
+public class AvailabilityMatchIndex extends ReloadableIndex {
+
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * Weight of the overlap ratio in the score, the place ratio weighs the rest.
+     */
+    private static final double OVERLAP_WEIGHT = 0.5;
+
+    @Autowired
+    private AvailabilitySnapshotReader snapshotReader;
+
+    @Value("${availability.max-duration:3650d}")
+    private Duration maxDuration;
+
+    private final Map<UUID, Integer> ordinalsById = new HashMap<>();
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+
+    private final Map<String, RoaringBitmap> byPlace = new HashMap<>();
+
+    private final Map<UUID, RoaringBitmap> byJobCategory = new HashMap<>();
+
+    private final NavigableMap<Long, RoaringBitmap> byDay = new TreeMap<>();
+
+    /**
+     * Availabilities spanning more days than the maximum duration, not set in the day buckets.
+     */
+    private final RoaringBitmap wide = new RoaringBitmap();
+
+    private record Entry(UUID id, long start, long end, UUID jobCategoryId, Set<String> places) {
+    }
+
+    /**
+     * Availability matching a job offer.
+     *
+     * @param id    Availability id.
+     * @param score Score between 0 and 1, higher is better.
+     */
+    public record Match(UUID id, double score) {
+    }
+
+    @Override
+    protected List<Availability> readSnapshot() {
+        return snapshotReader.read();
+    }
+
+    @Override
+    protected void clear() {
+        ordinalsById.clear();
+        entries.clear();
+        freeOrdinals.clear();
+        byPlace.clear();
+        byJobCategory.clear();
+        byDay.clear();
+        wide.clear();
+    }
+
+    @Override
+    protected void add(Availability availability) {
+        put(availability.getId(), availability.getStartDate() == null ? null : availability.getStartDate().toEpochMilli(), availability.getEndDate() == null ? null : availability.getEndDate().toEpochMilli(), availability.getJobCategoryId(), availability.getPlaceList());
+    }
+
+    @Override
+    protected void apply(AvailabilityChangedEvent event) {
+        remove(event.getId());
+        if (event.getType() != AvailabilityChangedEvent.Type.DELETED) {
+            put(event.getId(), event.getStartDate() == null ? null : event.getStartDate().toEpochMilli(), event.getEndDate() == null ? null : event.getEndDate().toEpochMilli(), event.getJobCategoryId(), event.getPlaceList());
+        }
+    }
+
+    /**
+     * Find the best availabilities for a job offer.
+     * An availability matches when it overlaps the offer window, has the offer job category if any
+     * and includes at least one of the offer places if any.
+     *
+     * @param from          Offer window start (epoch millis).
+     * @param to            Offer window end (epoch millis).
+     * @param places        Offer places, empty for any place.
+     * @param jobCategoryId Offer job category, null for any job category.
+     * @param limit         Maximum number of matches.
+     * @return Matches ordered by decreasing score.
+     */
+    public List<Match> findMatches(long from, long to, Collection<String> places, UUID jobCategoryId, int limit) {
+        Set<String> offerPlaces = new HashSet<>(places);
+        Comparator<Match> byScore = Comparator.comparingDouble(Match::score).thenComparing(Match::id, Comparator.reverseOrder());
+        PriorityQueue<Match> best = new PriorityQueue<>(byScore);
+
+        lock.readLock().lock();
+        try {
+            RoaringBitmap candidates = FastAggregation.or(byDay.subMap(toDay(from), true, toDay(to), true).values().iterator());
+            candidates.or(wide);
+            if (jobCategoryId != null) {
+                candidates.and(byJobCategory.getOrDefault(jobCategoryId, new RoaringBitmap()));
+            }
+            if (!offerPlaces.isEmpty()) {
+                List<RoaringBitmap> placeBitmaps = new ArrayList<>();
+                for (String place : offerPlaces) {
+                    RoaringBitmap bitmap = byPlace.get(place);
+                    if (bitmap != null) {
+                        placeBitmaps.add(bitmap);
+                    }
+                }
+                candidates.and(FastAggregation.or(placeBitmaps.iterator()));
+            }
+
+            IntIterator iterator = candidates.getIntIterator();
+            while (iterator.hasNext()) {
+                Entry entry = entries.get(iterator.next());
+                // Day buckets are coarser than the dates, check the actual overlap
+                long overlap = Math.min(entry.end(), to) - Math.max(entry.start(), from);
+                if (overlap < 0) {
+                    continue;
+                }
+                best.add(new Match(entry.id(), score(entry, overlap, from, to, offerPlaces)));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Match> matches = new ArrayList<>(best);
+        matches.sort(byScore.reversed());
+        return matches;
+    }
+
+    /**
+     * Get the number of indexed availabilities.
+     *
+     * @return Number of indexed availabilities.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinalsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static double score(Entry entry, long overlap, long from, long to, Set<String> offerPlaces) {
+        // A single-instant window is fully covered by any overlapping availability
+        double overlapRatio = to == from ? 1 : (double) overlap / (to - from);
+        double placeRatio = 1;
+        if (!offerPlaces.isEmpty()) {
+            int matchedPlaces = 0;
+            for (String place : offerPlaces) {
+                if (entry.places().contains(place)) {
+                    matchedPlaces++;
+                }
+            }
+            placeRatio = (double) matchedPlaces / offerPlaces.size();
+        }
+        return OVERLAP_WEIGHT * overlapRatio + (1 - OVERLAP_WEIGHT) * placeRatio;
+    }
+
+    private void put(UUID id, Long start, Long end, UUID jobCategoryId, List<String> placeList) {
+        // Availabilities without a complete date range can never overlap an offer
+        if (id == null || start == null || end == null || start > end) {
+            return;
+        }
+        Set<String> places = placeList == null ? Set.of() : Set.copyOf(placeList);
+        Entry entry = new Entry(id, start, end, jobCategoryId, places);
+
+        int ordinal;
+        if (freeOrdinals.isEmpty()) {
+            ordinal = entries.size();
+            entries.add(entry);
+        } else {
+            ordinal = freeOrdinals.pop();
+            entries.set(ordinal, entry);
+        }
+        ordinalsById.put(id, ordinal);
+
+        for (String place : places) {
+            byPlace.computeIfAbsent(place, k -> new RoaringBitmap()).add(ordinal);
+        }
+        if (jobCategoryId != null) {
+            byJobCategory.computeIfAbsent(jobCategoryId, k -> new RoaringBitmap()).add(ordinal);
+        }
+        if (isWide(start, end)) {
+            wide.add(ordinal);
+            return;
+        }
+        for (long day = toDay(start); day <= toDay(end); day++) {
+            byDay.computeIfAbsent(day, k -> new RoaringBitmap()).add(ordinal);
+        }
+    }
+
+    private void remove(UUID id) {
+        Integer ordinal = ordinalsById.remove(id);
+        if (ordinal == null) {
+            return;
+        }
+        Entry entry = entries.get(ordinal);
+        entries.set(ordinal, null);
+        freeOrdinals.push(ordinal);
+
+        for (String place : entry.places()) {
+            removeFromBitmap(byPlace, place, ordinal);
+        }
+        if (entry.jobCategoryId() != null) {
+            removeFromBitmap(byJobCategory, entry.jobCategoryId(), ordinal);
+        }
+        if (isWide(entry.start(), entry.end())) {
+            wide.remove(ordinal);
+            return;
+        }
+        for (long day = toDay(entry.start()); day <= toDay(entry.end()); day++) {
+            removeFromBitmap(byDay, day, ordinal);
+        }
+    }
+
+    private boolean isWide(long start, long end) {
+        return toDay(end) - toDay(start) >= maxDuration.toDays();
+    }
+
+    private static <K> void removeFromBitmap(Map<K, RoaringBitmap> bitmaps, K key, int ordinal) {
+        RoaringBitmap bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.remove(ordinal);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    private static long toDay(long epochMillis) {
+        return Math.floorDiv(epochMillis, DAY_MILLIS);
+    }
+}
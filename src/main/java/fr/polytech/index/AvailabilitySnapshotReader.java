@@ -0,0 +1,55 @@
+package fr.polytech.index;
+
+import fr.polytech.model.Availability;
+import fr.polytech.repository.AvailabilityRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Read the availability table the in-memory indexes are built from.
+ * The rows are streamed from a cursor and detached one by one, so the persistence context never holds the whole table,
+ * and the second-level cache is kept out of the read so that a reload does not evict the hot entries.
+ */
+@Component
+public class AvailabilitySnapshotReader {
+
+    @Autowired
+    private AvailabilityRepository availabilityRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Read every availability with its place list.
+     *
+     * @return Detached availabilities, ordered by id.
+     */
+    @Transactional(readOnly = true)
+    public List<Availability> read() {
+        List<Availability> snapshot = new ArrayList<>();
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode cacheMode = session.getCacheMode();
+        session.setCacheMode(CacheMode.IGNORE);
+        try (Stream<Availability> availabilities = availabilityRepository.streamAll()) {
+            Iterator<Availability> iterator = availabilities.iterator();
+            while (iterator.hasNext()) {
+                Availability availability = iterator.next();
+                entityManager.detach(availability);
+                snapshot.add(availability);
+            }
+        } finally {
+            session.setCacheMode(cacheMode);
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,205 @@
+package fr.polytech.index;
+
+import fr.polytech.event.AvailabilityChangedEvent;
+import fr.polytech.model.Availability;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.TemporalAdjusters;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Weekly counts of the availabilities per job category and per place, for the dashboards.
+ * An availability counts once in every week (Monday to Sunday, UTC) its date range touches.
+ * The counters are moved by each availability write, so reading them never scans the table;
+ * the contribution of every availability is kept to undo it on update and delete.
+ * The counters are held by each instance: the writes made through another instance only show here
+ * after the nightly repair, so the counts of two instances may differ during the day.
+ * An availability longer than availability.max-duration, which only older rows can be, counts in the weeks
+ * of its first availability.max-duration only.
+ */
+@Component
+public class AvailabilityStatistics extends ReloadableIndex {
+
+    /**
+     * Initialize the logger.
+     */
+    private final Logger logger = LoggerFactory.getLogger(AvailabilityStatistics.class);
+
+    @Autowired
+    private AvailabilitySnapshotReader snapshotReader;
+
+    @Value("${availability.max-duration:3650d}")
+    private Duration maxDuration;
+
+    private final Map<UUID, Contribution> contributionsById = new HashMap<>();
+
+    private final Map<UUID, NavigableMap<LocalDate, Integer>> byJobCategory = new HashMap<>();
+
+    private final Map<String, NavigableMap<LocalDate, Integer>> byPlace = new HashMap<>();
+
+    private record Contribution(UUID jobCategoryId, Set<String> places, LocalDate firstWeek, LocalDate lastWeek) {
+    }
+
+    /**
+     * Recompute the statistics from the table, repairing any drift of the counters
+     * and catching up with the writes made through the other instances.
+     * The indexes are also all reloaded periodically, see {@link AvailabilityIndexLoader}.
+     */
+    public void repair() {
+        logger.info("Rebuilding availability statistics");
+        reload();
+        logger.debug("Counted " + size() + " availabilities in the statistics");
+    }
+
+    /**
+     * Get the number of counted availabilities.
+     *
+     * @return Number of counted availabilities.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return contributionsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    protected List<Availability> readSnapshot() {
+        return snapshotReader.read();
+    }
+
+    @Override
+    protected void clear() {
+        contributionsById.clear();
+        byJobCategory.clear();
+        byPlace.clear();
+    }
+
+    @Override
+    protected void add(Availability availability) {
+        add(availability.getId(), availability.getJobCategoryId(), availability.getPlaceList(), availability.getStartDate(), availability.getEndDate());
+    }
+
+    @Override
+    protected void apply(AvailabilityChangedEvent event) {
+        remove(event.getId());
+        if (event.getType() != AvailabilityChangedEvent.Type.DELETED) {
+            add(event.getId(), event.getJobCategoryId(), event.getPlaceList(), event.getStartDate(), event.getEndDate());
+        }
+    }
+
+    /**
+     * Get the weekly availability counts of a job category.
+     *
+     * @param jobCategoryId Job category.
+     * @param from          First week, any day of it.
+     * @param to            Last week, any day of it.
+     * @return Counts by week start (Monday), weeks without availability omitted.
+     */
+    public SortedMap<LocalDate, Integer> getJobCategoryCounts(UUID jobCategoryId, LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            return slice(byJobCategory.get(jobCategoryId), from, to);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the weekly availability counts of a place.
+     *
+     * @param place Place.
+     * @param from  First week, any day of it.
+     * @param to    Last week, any day of it.
+     * @return Counts by week start (Monday), weeks without availability omitted.
+     */
+    public SortedMap<LocalDate, Integer> getPlaceCounts(String place, LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            return slice(byPlace.get(place), from, to);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the start of the week of a day.
+     *
+     * @param day Day.
+     * @return Monday of the week.
+     */
+    public static LocalDate weekOf(LocalDate day) {
+        return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    private static SortedMap<LocalDate, Integer> slice(NavigableMap<LocalDate, Integer> counts, LocalDate from, LocalDate to) {
+        if (counts == null) {
+            return new TreeMap<>();
+        }
+        return new TreeMap<>(counts.subMap(weekOf(from), true, weekOf(to), true));
+    }
+
+    private void add(UUID id, UUID jobCategoryId, List<String> placeList, Instant start, Instant end) {
+        // Availabilities without a complete date range are not available in any week
+        if (id == null || start == null || end == null || start.isAfter(end)) {
+            return;
+        }
+        Set<String> places = placeList == null ? Set.of() : Set.copyOf(placeList);
+        // Bounds the weeks walked by a longer row to the ones of the maximum duration
+        Instant boundedEnd = Duration.between(start, end).compareTo(maxDuration) > 0 ? start.plus(maxDuration) : end;
+        Contribution contribution = new Contribution(jobCategoryId, places, weekOf(start), weekOf(boundedEnd));
+        contributionsById.put(id, contribution);
+        count(contribution, 1);
+    }
+
+    private void remove(UUID id) {
+        Contribution contribution = contributionsById.remove(id);
+        if (contribution != null) {
+            count(contribution, -1);
+        }
+    }
+
+    private void count(Contribution contribution, int delta) {
+        for (LocalDate week = contribution.firstWeek(); !week.isAfter(contribution.lastWeek()); week = week.plusWeeks(1)) {
+            if (contribution.jobCategoryId() != null) {
+                increment(byJobCategory, contribution.jobCategoryId(), week, delta);
+            }
+            for (String place : contribution.places()) {
+                increment(byPlace, place, week, delta);
+            }
+        }
+    }
+
+    private static <K> void increment(Map<K, NavigableMap<LocalDate, Integer>> counters, K key, LocalDate week, int delta) {
+        NavigableMap<LocalDate, Integer> counts = counters.computeIfAbsent(key, k -> new TreeMap<>());
+        // A count back to zero is removed, so the maps only hold weeks with availabilities
+        if (counts.merge(week, delta, Integer::sum) == 0) {
+            counts.remove(week);
+            if (counts.isEmpty()) {
+                counters.remove(key);
+            }
+        }
+    }
+
+    private static LocalDate weekOf(Instant instant) {
+        return weekOf(LocalDate.ofInstant(instant, ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,188 @@
+package fr.polytech.index;
+
+import fr.polytech.event.AvailabilityChangedEvent;
+import fr.polytech.model.Availability;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * In-memory structure built from the availability table and kept in sync with the availability writes.
+ * A reload reads the table without holding the lock, so reads and writes go on meanwhile;
+ * the writes received during the read are recorded and applied again on top of the snapshot,
+ * so none of them is lost when the snapshot replaces the content.
+ * The writes are the ones of this instance: other instances' writes only show after the next reload.
+ */
+public abstract class ReloadableIndex {
+
+    /**
+     * Guards the content of the structure, taken by the subclasses around their reads.
+     */
+    protected final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Serializes the reloads, without blocking the reads and writes.
+     */
+    private final Lock reloadLock = new ReentrantLock();
+
+    /**
+     * Writes received since the current reload started reading the table, null outside a reload.
+     */
+    private List<AvailabilityChangedEvent> pendingEvents;
+
+    private volatile boolean loaded;
+
+    /**
+     * Replace the content with the current table, keeping the writes received during the read.
+     */
+    public void reload() {
+        reload(List.of(this), this::readSnapshot);
+    }
+
+    /**
+     * Replace the content of several structures with a single read of the table,
+     * each one keeping the writes it received during the read.
+     *
+     * @param indexes        Structures to reload.
+     * @param snapshotReader Read of the availabilities the structures are built from.
+     */
+    public static void reload(List<? extends ReloadableIndex> indexes, Supplier<List<Availability>> snapshotReader) {
+        List<ReloadableIndex> started = new ArrayList<>();
+        try {
+            for (ReloadableIndex index : indexes) {
+                index.beginReload();
+                started.add(index);
+            }
+
+            List<Availability> snapshot;
+            try {
+                snapshot = snapshotReader.get();
+            } catch (RuntimeException e) {
+                started.forEach(ReloadableIndex::abortReload);
+                started.clear();
+                throw e;
+            }
+
+            for (ReloadableIndex index : indexes) {
+                started.remove(index);
+                index.finishReload(snapshot);
+            }
+        } finally {
+            // Release the structures a failure left in the middle of their reload
+            started.forEach(ReloadableIndex::abortReload);
+        }
+    }
+
+    /**
+     * Start recording the writes, before the table is read.
+     */
+    private void beginReload() {
+        reloadLock.lock();
+        lock.writeLock().lock();
+        try {
+            pendingEvents = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the content with the snapshot and the writes recorded since the reload started.
+     *
+     * @param snapshot Availabilities read from the table.
+     */
+    private void finishReload(List<Availability> snapshot) {
+        try {
+            lock.writeLock().lock();
+            try {
+                clear();
+                for (Availability availability : snapshot) {
+                    add(availability);
+                }
+                // Applying a write again is harmless when the snapshot already holds it
+                pendingEvents.forEach(this::apply);
+                pendingEvents = null;
+                loaded = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Stop recording the writes, leaving the content as it was.
+     */
+    private void abortReload() {
+        try {
+            lock.writeLock().lock();
+            try {
+                pendingEvents = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Keep the content in sync with the availability writes.
+     *
+     * @param event Availability write.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAvailabilityChanged(AvailabilityChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (pendingEvents != null) {
+                pendingEvents.add(event);
+            }
+            apply(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Tell whether the content has been loaded from the table at least once.
+     *
+     * @return Whether the structure can serve reads.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Read the availabilities the structure is built from.
+     *
+     * @return Availabilities of the table.
+     */
+    protected abstract List<Availability> readSnapshot();
+
+    /**
+     * Empty the structure, called with the write lock held.
+     */
+    protected abstract void clear();
+
+    /**
+     * Add an availability of the snapshot, called with the write lock held.
+     *
+     * @param availability Availability to add.
+     */
+    protected abstract void add(Availability availability);
+
+    /**
+     * Apply an availability write, called with the write lock held.
+     *
+     * @param event Availability write.
+     */
+    protected abstract void apply(AvailabilityChangedEvent event);
+}
@@ -1,24 +1,61 @@
 package fr.polytech.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
-import java.util.Date;
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "availability", schema = "public")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Availability.CACHE_REGION)
+@DynamicUpdate
+@Table(name = "availability", schema = "public", indexes = {
+        @Index(name = "idx_availability_start_date_id", columnList = "start_date, id"),
+        @Index(name = "idx_availability_job_category_start_date_id", columnList = "job_category_id, start_date, id")
+})
 public class Availability {
 
+    /**
+     * Second-level cache regions of the availabilities and of their place lists.
+     */
+    public static final String CACHE_REGION = "availability";
+    public static final String PLACE_LIST_CACHE_REGION = "availability.placeList";
+
+    /**
+     * Generated in the JVM when the availability is persisted, without a database round trip,
+     * so the inserts of a bulk create are still grouped in JDBC batches (only IDENTITY ids prevent it).
+     * Kept instead of assigning the id in the service: an assigned id on a primitive-versioned entity
+     * makes save() merge, and so select, each new availability before inserting it.
+     */
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
     private String jobTitle;
+    @Column(name = "job_category_id")
     private UUID jobCategoryId;
-    private Date startDate;
-    private Date endDate;
+    @Column(name = "start_date")
+    private Instant startDate;
+    @Column(name = "end_date")
+    private Instant endDate;
     @ElementCollection(targetClass = String.class, fetch = FetchType.LAZY)
+    @CollectionTable(name = "availability_place_list", schema = "public", joinColumns = @JoinColumn(name = "availability_id"), indexes = {
+            @Index(name = "idx_availability_place_list_place", columnList = "place_list, availability_id")
+    })
+    @Column(name = "place_list")
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Availability.PLACE_LIST_CACHE_REGION)
     private List<String> placeList;
+    /**
+     * Incremented on each update, used for optimistic locking and as ETag.
+     */
+    @Version
+    @Column(name = "version", columnDefinition = "bigint default 0 not null")
+    private long version;
 
     public UUID getId() {
         return id;
@@ -44,19 +81,19 @@ public class Availability {
         this.jobCategoryId = jobCategoryId;
     }
 
-    public Date getStartDate() {
+    public Instant getStartDate() {
         return startDate;
     }
 
-    public void setStartDate(Date startDate) {
+    public void setStartDate(Instant startDate) {
         this.startDate = startDate;
     }
 
-    public Date getEndDate() {
+    public Instant getEndDate() {
         return endDate;
     }
 
-    public void setEndDate(Date endDate) {
+    public void setEndDate(Instant endDate) {
         this.endDate = endDate;
     }
 
@@ -67,4 +104,12 @@ public class Availability {
     public void setPlaceList(List<String> placeList) {
         this.placeList = placeList;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
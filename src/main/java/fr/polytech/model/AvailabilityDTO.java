@@ -1,6 +1,6 @@
 package fr.polytech.model;
 
-import java.util.Date;
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -8,8 +8,8 @@ public class AvailabilityDTO {
     private UUID id;
     private String jobTitle;
     private UUID jobCategoryId;
-    private Date startDate;
-    private Date endDate;
+    private Instant startDate;
+    private Instant endDate;
     private List<String> placeList;
 
     public UUID getId() {
@@ -36,19 +36,19 @@ public class AvailabilityDTO {
         this.jobCategoryId = jobCategoryId;
     }
 
-    public Date getStartDate() {
+    public Instant getStartDate() {
         return startDate;
     }
 
-    public void setStartDate(Date startDate) {
+    public void setStartDate(Instant startDate) {
         this.startDate = startDate;
     }
 
-    public Date getEndDate() {
+    public Instant getEndDate() {
         return endDate;
     }
 
-    public void setEndDate(Date endDate) {
+    public void setEndDate(Instant endDate) {
         this.endDate = endDate;
     }
 
@@ -0,0 +1,35 @@
+package fr.polytech.model;
+
+public class AvailabilityMatchDTO {
+
+    private Availability availability;
+
+    /**
+     * Score between 0 and 1, higher is better.
+     */
+    private double score;
+
+    public AvailabilityMatchDTO() {
+    }
+
+    public AvailabilityMatchDTO(Availability availability, double score) {
+        this.availability = availability;
+        this.score = score;
+    }
+
+    public Availability getAvailability() {
+        return availability;
+    }
+
+    public void setAvailability(Availability availability) {
+        this.availability = availability;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+}
@@ -0,0 +1,17 @@
+package fr.polytech.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Read-only view of an availability for the list screens, without its place list.
+ * Selected with a constructor expression, so the rows never become managed entities.
+ *
+ * @param id            Availability id.
+ * @param jobTitle      Job title.
+ * @param jobCategoryId Job category id.
+ * @param startDate     Start date.
+ * @param endDate       End date.
+ */
+public record AvailabilitySummary(UUID id, String jobTitle, UUID jobCategoryId, Instant startDate, Instant endDate) {
+}
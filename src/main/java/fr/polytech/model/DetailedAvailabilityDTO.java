@@ -1,6 +1,6 @@
 package fr.polytech.model;
 
-import java.util.Date;
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -9,8 +9,8 @@ public class DetailedAvailabilityDTO {
     private UUID id;
     private String jobTitle;
     private JobCategoryDTO jobCategory;
-    private Date startDate;
-    private Date endDate;
+    private Instant startDate;
+    private Instant endDate;
     private List<String> placeList;
 
     public UUID getId() {
@@ -37,19 +37,19 @@ public class DetailedAvailabilityDTO {
         this.jobCategory = jobCategory;
     }
 
-    public Date getStartDate() {
+    public Instant getStartDate() {
         return startDate;
     }
 
-    public void setStartDate(Date startDate) {
+    public void setStartDate(Instant startDate) {
         this.startDate = startDate;
     }
 
-    public Date getEndDate() {
+    public Instant getEndDate() {
         return endDate;
     }
 
-    public void setEndDate(Date endDate) {
+    public void setEndDate(Instant endDate) {
         this.endDate = endDate;
     }
 
@@ -0,0 +1,45 @@
+package fr.polytech.model;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public class JobOfferDTO {
+
+    private UUID jobCategoryId;
+    private Instant startDate;
+    private Instant endDate;
+    private List<String> placeList;
+
+    public UUID getJobCategoryId() {
+        return jobCategoryId;
+    }
+
+    public void setJobCategoryId(UUID jobCategoryId) {
+        this.jobCategoryId = jobCategoryId;
+    }
+
+    public Instant getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(Instant startDate) {
+        this.startDate = startDate;
+    }
+
+    public Instant getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(Instant endDate) {
+        this.endDate = endDate;
+    }
+
+    public List<String> getPlaceList() {
+        return placeList;
+    }
+
+    public void setPlaceList(List<String> placeList) {
+        this.placeList = placeList;
+    }
+}
@@ -0,0 +1,37 @@
+package fr.polytech.model;
+
+import java.util.List;
+
+public class KeysetPage<T> {
+
+    private List<T> content;
+
+    /**
+     * Opaque continuation token of the next page, null on the last page.
+     */
+    private String nextToken;
+
+    public KeysetPage() {
+    }
+
+    public KeysetPage(List<T> content, String nextToken) {
+        this.content = content;
+        this.nextToken = nextToken;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    public void setNextToken(String nextToken) {
+        this.nextToken = nextToken;
+    }
+}
@@ -0,0 +1,111 @@
+package fr.polytech.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "availability_outbox", schema = "public", indexes = {
+        @Index(name = "idx_availability_outbox_published_at_id", columnList = "published_at, id")
+})
+public class OutboxEvent {
+
+    /**
+     * Position of the event, the relay publishes in this order.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "availability_outbox_seq")
+    @SequenceGenerator(name = "availability_outbox_seq", sequenceName = "availability_outbox_seq", schema = "public", allocationSize = 50)
+    private Long id;
+    @Column(name = "aggregate_id", nullable = false)
+    private UUID aggregateId;
+    @Column(name = "type", nullable = false, length = 16)
+    private String type;
+    /**
+     * JSON of the change.
+     */
+    @Column(name = "payload", nullable = false, columnDefinition = "text")
+    private String payload;
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+    /**
+     * Null until the relay has published the event.
+     */
+    @Column(name = "published_at")
+    private Instant publishedAt;
+    /**
+     * Number of failed publications of the event.
+     */
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+    /**
+     * Set when the relay gave up publishing the event, which then no longer blocks the later events.
+     */
+    @Column(name = "dead_lettered_at")
+    private Instant deadLetteredAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public UUID getAggregateId() {
+        return aggregateId;
+    }
+
+    public void setAggregateId(UUID aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getPublishedAt() {
+        return publishedAt;
+    }
+
+    public void setPublishedAt(Instant publishedAt) {
+        this.publishedAt = publishedAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Instant getDeadLetteredAt() {
+        return deadLetteredAt;
+    }
+
+    public void setDeadLetteredAt(Instant deadLetteredAt) {
+        this.deadLetteredAt = deadLetteredAt;
+    }
+}
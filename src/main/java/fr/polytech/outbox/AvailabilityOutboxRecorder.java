@@ -0,0 +1,49 @@
+package fr.polytech.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.polytech.event.AvailabilityChangedEvent;
+import fr.polytech.model.OutboxEvent;
+import fr.polytech.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.UncheckedIOException;
+import java.time.Instant;
+
+/**
+ * Record each availability change in the outbox, in the transaction of the write itself,
+ * so that an event is stored if and only if its change is committed.
+ */
+@Component
+public class AvailabilityOutboxRecorder {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Store an availability change in the outbox.
+     *
+     * @param event Availability write.
+     */
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onAvailabilityChanged(AvailabilityChangedEvent event) {
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setAggregateId(event.getId());
+        outboxEvent.setType(event.getType().name());
+        outboxEvent.setCreatedAt(Instant.now());
+        try {
+            outboxEvent.setPayload(objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        outboxEventRepository.save(outboxEvent);
+    }
+}
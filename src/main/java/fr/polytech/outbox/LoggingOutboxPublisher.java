@@ -0,0 +1,27 @@
+package fr.polytech.outbox;
+
+import fr.polytech.model.OutboxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Default publisher, logging the events until a message broker is plugged in.
+ */
+@Component
+public class LoggingOutboxPublisher implements OutboxPublisher {
+
+    /**
+     * Initialize the logger.
+     */
+    private final Logger logger = LoggerFactory.getLogger(LoggingOutboxPublisher.class);
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            logger.info("Availability event " + event.getId() + ": " + event.getType() + " " + event.getAggregateId());
+        }
+    }
+}
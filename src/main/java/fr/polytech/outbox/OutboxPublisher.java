@@ -0,0 +1,21 @@
+package fr.polytech.outbox;
+
+import fr.polytech.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Destination of the availability change events relayed from the outbox.
+ * Delivery is at least once: a chunk whose publication could not be recorded is published again,
+ * so consumers should ignore the event ids they already handled.
+ */
+public interface OutboxPublisher {
+
+    /**
+     * Publish a chunk of events.
+     *
+     * @param events Events, ordered by id.
+     * @throws RuntimeException if the chunk could not be published, it is then retried on the next relay run
+     */
+    void publish(List<OutboxEvent> events) throws RuntimeException;
+}
@@ -0,0 +1,183 @@
+package fr.polytech.outbox;
+
+import fr.polytech.model.OutboxEvent;
+import fr.polytech.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Publish the outbox events in order, one chunk per transaction.
+ * A chunk is marked as published in the transaction that locked it, so a failed publication leaves it,
+ * and every later event, to the next run. The runs are scheduled by OutboxConfig.
+ * After a failed chunk, the events are published one at a time to single out the failing one,
+ * whose failures are counted: it is dead-lettered after availability.outbox.relay.max-attempts of them,
+ * so that it no longer blocks the later events. Until then, the runs back off exponentially.
+ */
+@Component
+public class OutboxRelay {
+
+    /**
+     * Initialize the logger.
+     */
+    private final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxPublisher outboxPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${availability.outbox.relay.chunk-size:100}")
+    private int chunkSize;
+
+    @Value("${availability.outbox.relay.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${availability.outbox.relay.backoff.initial:1s}")
+    private Duration initialBackoff;
+
+    @Value("${availability.outbox.relay.backoff.max:5m}")
+    private Duration maxBackoff;
+
+    @Value("${availability.outbox.retention:7d}")
+    private Duration retention;
+
+    /**
+     * Number of runs failed in a row, guarded by the relay.
+     */
+    private int consecutiveFailures;
+
+    /**
+     * Runs are skipped until this date after a failure.
+     */
+    private Instant nextAttemptAt = Instant.MIN;
+
+    /**
+     * Failure to publish an event, singled out from the failure of the other events of a chunk.
+     */
+    private static class PublicationException extends RuntimeException {
+
+        private final Long eventId;
+
+        private PublicationException(Long eventId, RuntimeException cause) {
+            super(cause);
+            this.eventId = eventId;
+        }
+    }
+
+    /**
+     * Publish every pending event, unless backing off after a failure.
+     *
+     * @return Number of events published.
+     */
+    public synchronized int relay() {
+        if (Instant.now().isBefore(nextAttemptAt)) {
+            return 0;
+        }
+
+        int total = 0;
+        int size = chunkSize;
+        try {
+            boolean more = true;
+            while (more) {
+                int chunk = size;
+                int published;
+                try {
+                    published = transactionTemplate.execute(status -> relayChunk(chunk));
+                } catch (PublicationException e) {
+                    if (chunk == 1) {
+                        throw e;
+                    }
+                    logger.warn("Error while relaying a chunk of availability events, relaying them one at a time", e.getCause());
+                    size = 1;
+                    continue;
+                }
+                total += published;
+                more = published == chunk;
+            }
+            consecutiveFailures = 0;
+        } catch (PublicationException e) {
+            logger.error("Error while relaying availability event " + e.eventId, e.getCause());
+            recordFailure(e.eventId);
+        } catch (RuntimeException e) {
+            logger.error("Error while relaying availability events", e);
+            backOff();
+        }
+        if (total > 0) {
+            logger.debug("Relayed " + total + " availability events");
+        }
+        return total;
+    }
+
+    /**
+     * Delete the events published longer ago than the retention.
+     */
+    public void purge() {
+        Instant before = Instant.now().minus(retention);
+        Integer deleted = transactionTemplate.execute(status -> outboxEventRepository.deletePublishedBefore(before));
+        logger.debug("Purged " + deleted + " availability events");
+    }
+
+    private int relayChunk(int size) {
+        List<OutboxEvent> events = outboxEventRepository.findUnpublished(PageRequest.of(0, size));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        try {
+            outboxPublisher.publish(events);
+        } catch (RuntimeException e) {
+            throw new PublicationException(events.get(0).getId(), e);
+        }
+        outboxEventRepository.markPublished(events.stream().map(OutboxEvent::getId).toList(), Instant.now());
+        return events.size();
+    }
+
+    /**
+     * Count a failed publication of an event, dead-lettering it once it has no attempts left.
+     *
+     * @param eventId Id of the event.
+     */
+    private void recordFailure(Long eventId) {
+        try {
+            Integer deadLettered = transactionTemplate.execute(status -> {
+                outboxEventRepository.incrementAttempts(eventId);
+                return outboxEventRepository.deadLetter(eventId, maxAttempts, Instant.now());
+            });
+            if (deadLettered != null && deadLettered > 0) {
+                logger.error("Dead-lettered availability event " + eventId + " after " + maxAttempts + " failed publications");
+                // The later events are no longer blocked, relay them on the next run
+                consecutiveFailures = 0;
+                nextAttemptAt = Instant.MIN;
+                return;
+            }
+        } catch (RuntimeException e) {
+            logger.error("Error while recording the failure of availability event " + eventId, e);
+        }
+        backOff();
+    }
+
+    /**
+     * Skip the next runs for a delay doubling with each failure in a row, up to the maximum backoff.
+     */
+    private void backOff() {
+        consecutiveFailures++;
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(consecutiveFailures - 1, 20));
+        if (delay.compareTo(maxBackoff) > 0) {
+            delay = maxBackoff;
+        }
+        nextAttemptAt = Instant.now().plus(delay);
+        logger.debug("Backing off the availability event relay for " + delay);
+    }
+}
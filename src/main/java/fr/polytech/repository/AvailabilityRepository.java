@@ -1,10 +1,126 @@
 package fr.polytech.repository;
 
 import fr.polytech.model.Availability;
+import fr.polytech.model.AvailabilitySummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface AvailabilityRepository extends JpaRepository<Availability, UUID> { }
+public interface AvailabilityRepository extends JpaRepository<Availability, UUID>, AvailabilityRepositoryCustom {
+
+    /**
+     * Get all availabilities with their place list, in a single query.
+     *
+     * @return List of all availabilities.
+     */
+    @EntityGraph(attributePaths = "placeList")
+    @Query("SELECT a FROM Availability a")
+    List<Availability> findAllWithPlaces();
+
+    /**
+     * Get the availabilities with the specified ids with their place list, in a single query.
+     *
+     * @param ids Availability ids.
+     * @return List of the availabilities found.
+     */
+    @EntityGraph(attributePaths = "placeList")
+    @Query("SELECT a FROM Availability a WHERE a.id IN :ids")
+    List<Availability> findAllWithPlacesByIdIn(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Delete an availability without loading it.
+     * Hibernate deletes the place list rows first, then the availability.
+     *
+     * @param id Availability id.
+     * @return Number of availabilities deleted, 0 if not found.
+     */
+    @Modifying
+    @Query("DELETE FROM Availability a WHERE a.id = :id")
+    int deleteByIdReturningCount(@Param("id") UUID id);
+
+    /**
+     * Get the first keyset page ordered by (start date, id).
+     *
+     * @param pageable Page size (the page number is ignored).
+     * @return First availabilities.
+     */
+    @Query("SELECT a FROM Availability a WHERE a.startDate IS NOT NULL ORDER BY a.startDate, a.id")
+    List<Availability> findFirstPage(Pageable pageable);
+
+    /**
+     * Get the keyset page following the (start date, id) position.
+     *
+     * @param startDate Start date of the last availability of the previous page.
+     * @param id        Id of the last availability of the previous page.
+     * @param pageable  Page size (the page number is ignored).
+     * @return Availabilities after the position.
+     */
+    @Query("SELECT a FROM Availability a WHERE a.startDate > :startDate OR (a.startDate = :startDate AND a.id > :id) ORDER BY a.startDate, a.id")
+    List<Availability> findPageAfter(@Param("startDate") Instant startDate, @Param("id") UUID id, Pageable pageable);
+
+    /**
+     * Get the summary of every availability, ordered by (start date, id).
+     *
+     * @return Summaries of all availabilities.
+     */
+    @Query("SELECT new fr.polytech.model.AvailabilitySummary(a.id, a.jobTitle, a.jobCategoryId, a.startDate, a.endDate) FROM Availability a ORDER BY a.startDate, a.id")
+    List<AvailabilitySummary> findAllSummaries();
+
+    /**
+     * Get the summaries of the availabilities with the specified ids.
+     *
+     * @param ids Availability ids.
+     * @return Summaries of the availabilities found, ordered by (start date, id).
+     */
+    @Query("SELECT new fr.polytech.model.AvailabilitySummary(a.id, a.jobTitle, a.jobCategoryId, a.startDate, a.endDate) FROM Availability a WHERE a.id IN :ids ORDER BY a.startDate, a.id")
+    List<AvailabilitySummary> findSummariesByIdIn(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Get the first keyset page of summaries ordered by (start date, id).
+     *
+     * @param pageable Page size (the page number is ignored).
+     * @return First summaries.
+     */
+    @Query("SELECT new fr.polytech.model.AvailabilitySummary(a.id, a.jobTitle, a.jobCategoryId, a.startDate, a.endDate) FROM Availability a WHERE a.startDate IS NOT NULL ORDER BY a.startDate, a.id")
+    List<AvailabilitySummary> findFirstSummaryPage(Pageable pageable);
+
+    /**
+     * Get the keyset page of summaries following the (start date, id) position.
+     *
+     * @param startDate Start date of the last availability of the previous page.
+     * @param id        Id of the last availability of the previous page.
+     * @param pageable  Page size (the page number is ignored).
+     * @return Summaries after the position.
+     */
+    @Query("SELECT new fr.polytech.model.AvailabilitySummary(a.id, a.jobTitle, a.jobCategoryId, a.startDate, a.endDate) FROM Availability a WHERE a.startDate > :startDate OR (a.startDate = :startDate AND a.id > :id) ORDER BY a.startDate, a.id")
+    List<AvailabilitySummary> findSummaryPageAfter(@Param("startDate") Instant startDate, @Param("id") UUID id, Pageable pageable);
+
+    /**
+     * Stream every availability with its place list from a server-side cursor.
+     * The place list is fetched by the same query, the rows of an availability being consecutive thanks to the ordering.
+     * The stream must be consumed inside a transaction and closed afterwards, the caller setting the cache mode of the
+     * session to keep the second-level cache out of the read.
+     *
+     * @return Stream of all availabilities, fetched 500 rows at a time.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a FROM Availability a LEFT JOIN FETCH a.placeList ORDER BY a.id")
+    Stream<Availability> streamAll();
+}
@@ -0,0 +1,26 @@
+package fr.polytech.repository;
+
+import fr.polytech.model.Availability;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public interface AvailabilityRepositoryCustom {
+
+    /**
+     * Get a keyset page of the availabilities matching the given criteria, ordered by (start date, id).
+     * Only the criteria that are set are applied, so the query stays on the matching indexes.
+     *
+     * @param place         Place the availability must include, or null.
+     * @param jobCategoryId Job category of the availability, or null.
+     * @param from          Start of the window the availability must overlap, or null.
+     * @param to            End of the window the availability must overlap, or null.
+     * @param covering      Whether the availability must cover the whole window instead of overlapping it,
+     *                      both bounds are then required.
+     * @param after         Position (start date and id) of the last availability of the previous page, or null.
+     * @param limit         Maximum number of availabilities.
+     * @return Matching availabilities.
+     */
+    List<Availability> findFiltered(String place, UUID jobCategoryId, Instant from, Instant to, boolean covering, Availability after, int limit);
+}
@@ -0,0 +1,95 @@
+package fr.polytech.repository;
+
+import fr.polytech.model.Availability;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class AvailabilityRepositoryImpl implements AvailabilityRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Whether the table has the generated period column of the PostgreSQL migrations.
+     */
+    @Value("${availability.filter.period-column:false}")
+    private boolean periodColumn;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Availability> findFiltered(String place, UUID jobCategoryId, Instant from, Instant to, boolean covering, Availability after, int limit) {
+        List<String> predicates = new ArrayList<>();
+        Map<String, Object> parameters = new HashMap<>();
+        predicates.add("a.start_date IS NOT NULL");
+        if (place != null) {
+            // Served by the (place_list, availability_id) index of the place list table
+            predicates.add("EXISTS (SELECT 1 FROM public.availability_place_list p WHERE p.availability_id = a.id AND p.place_list = :place)");
+            parameters.put("place", place);
+        }
+        if (jobCategoryId != null) {
+            predicates.add("a.job_category_id = :jobCategoryId");
+            parameters.put("jobCategoryId", jobCategoryId);
+        }
+        if (from != null || to != null) {
+            predicates.add(periodPredicate(from, to, covering));
+            if (from != null) {
+                parameters.put("from", from);
+            }
+            if (to != null) {
+                parameters.put("to", to);
+            }
+        }
+        if (after != null) {
+            predicates.add("(a.start_date > :afterStartDate OR (a.start_date = :afterStartDate AND a.id > :afterId))");
+            parameters.put("afterStartDate", after.getStartDate());
+            parameters.put("afterId", after.getId());
+        }
+
+        String sql = "SELECT a.id, a.job_title, a.job_category_id, a.start_date, a.end_date, a.version FROM public.availability a"
+                + " WHERE " + String.join(" AND ", predicates)
+                + " ORDER BY a.start_date, a.id";
+        Query query = entityManager.createNativeQuery(sql, Availability.class);
+        parameters.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Build the window predicate, on the GiST-indexed period column when it is enabled,
+     * on the date columns otherwise (H2, whose schema comes from the mapping).
+     * Both forms treat the bounds as inclusive, a missing bound leaves that side of the window open.
+     *
+     * @param from     Start of the window, null if open.
+     * @param to       End of the window, null if open.
+     * @param covering Whether the availability must cover the whole window instead of overlapping it.
+     * @return SQL predicate on the availability alias a.
+     */
+    private String periodPredicate(Instant from, Instant to, boolean covering) {
+        if (periodColumn) {
+            String window = "tstzrange(" + (from == null ? "NULL" : "CAST(:from AS timestamptz)") + ", "
+                    + (to == null ? "NULL" : "CAST(:to AS timestamptz)") + ", '[]')";
+            return "a.period " + (covering ? "@>" : "&&") + " " + window;
+        }
+        List<String> predicates = new ArrayList<>();
+        if (covering) {
+            predicates.add("a.start_date <= :from");
+            predicates.add("a.end_date >= :to");
+        } else {
+            if (to != null) {
+                predicates.add("a.start_date <= :to");
+            }
+            if (from != null) {
+                predicates.add("a.end_date >= :from");
+            }
+        }
+        return String.join(" AND ", predicates);
+    }
+}
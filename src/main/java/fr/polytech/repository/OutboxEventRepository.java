@@ -0,0 +1,73 @@
+package fr.polytech.repository;
+
+import fr.polytech.model.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Get and lock the oldest unpublished events, so that a single relay publishes them at a time.
+     * The dead-lettered events are left out.
+     *
+     * @param pageable Chunk size (the page number is ignored).
+     * @return Oldest unpublished events, in order.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM OutboxEvent e WHERE e.publishedAt IS NULL AND e.deadLetteredAt IS NULL ORDER BY e.id")
+    List<OutboxEvent> findUnpublished(Pageable pageable);
+
+    /**
+     * Mark events as published.
+     *
+     * @param ids         Ids of the published events.
+     * @param publishedAt Publication date.
+     * @return Number of events marked.
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.publishedAt = :publishedAt WHERE e.id IN :ids")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("publishedAt") Instant publishedAt);
+
+    /**
+     * Count a failed publication of an event.
+     *
+     * @param id Id of the event.
+     * @return Number of events updated.
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1 WHERE e.id = :id")
+    int incrementAttempts(@Param("id") Long id);
+
+    /**
+     * Dead-letter an event once it has failed the maximum number of publications.
+     *
+     * @param id             Id of the event.
+     * @param maxAttempts    Number of failed publications after which the event is given up.
+     * @param deadLetteredAt Date at which the event is given up.
+     * @return Number of events dead-lettered, 0 if the event still has attempts left.
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.deadLetteredAt = :deadLetteredAt WHERE e.id = :id AND e.attempts >= :maxAttempts")
+    int deadLetter(@Param("id") Long id, @Param("maxAttempts") int maxAttempts, @Param("deadLetteredAt") Instant deadLetteredAt);
+
+    /**
+     * Delete the events published before a date, the dead-lettered events being kept.
+     *
+     * @param before Oldest publication date to keep.
+     * @return Number of events deleted.
+     */
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") Instant before);
+}
@@ -4,20 +4,36 @@ import fr.polytech.annotation.IsAdmin;
 import fr.polytech.annotation.IsCandidate;
 import fr.polytech.model.Availability;
 import fr.polytech.model.AvailabilityDTO;
+import fr.polytech.model.AvailabilityMatchDTO;
+import fr.polytech.model.AvailabilitySummary;
+import fr.polytech.model.BulkItemResult;
 import fr.polytech.model.DetailedAvailabilityDTO;
+import fr.polytech.model.JobCategoryDTO;
+import fr.polytech.model.JobOfferDTO;
+import fr.polytech.model.KeysetPage;
 import fr.polytech.service.AvailabilityService;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.Produces;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Objects;
+import java.util.SortedMap;
 import java.util.UUID;
 
 @RestController
@@ -29,6 +45,11 @@ public class AvailabilityController {
      */
     private final Logger logger = LoggerFactory.getLogger(AvailabilityController.class);
 
+    /**
+     * Newline-delimited JSON media type.
+     */
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+
     @Autowired
     private AvailabilityService availabilityService;
 
@@ -51,8 +72,243 @@ public class AvailabilityController {
         }
     }
 
+    /**
+     * Export all availabilities as newline-delimited JSON.
+     *
+     * @return Stream of all availabilities, one JSON document per line.
+     */
+    @GetMapping("/export")
+    @IsAdmin
+    @Produces(NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAvailabilities() {
+        logger.info("Exporting all availabilities");
+        StreamingResponseBody body = availabilityService::exportAvailabilities;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_VALUE))
+                .body(body);
+    }
+
+    /**
+     * Get a page of availabilities ordered by start date.
+     *
+     * @param size  Page size.
+     * @param token Continuation token returned with the previous page.
+     * @return Page of availabilities with the token of the next page.
+     */
+    @GetMapping("/page")
+    @IsAdmin
+    @Produces(MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<KeysetPage<Availability>> getAvailabilityPage(@RequestParam(value = "size", required = false) Integer size, @RequestParam(value = "token", required = false) String token) {
+        try {
+            KeysetPage<Availability> page = availabilityService.getAvailabilityPage(size, token);
+            logger.info("Got availability page");
+            return ResponseEntity.ok(page);
+        } catch (HttpClientErrorException e) {
+            logger.error("Error while getting availability page: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Search the availabilities overlapping a date window.
+     *
+     * @param from Window start.
+     * @param to   Window end.
+     * @return List of the availabilities overlapping the window.
+     */
+    @GetMapping("/search")
+    @Produces(MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<Availability>> searchAvailabilities(@RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from, @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        try {
+            List<Availability> availabilities = availabilityService.searchAvailabilities(from, to);
+            logger.info("Got availabilities between " + from + " and " + to);
+            return ResponseEntity.ok(availabilities);
+        } catch (HttpClientErrorException e) {
+            logger.error("Error while searching availabilities: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (HttpServerErrorException e) {
+            logger.error("Error while searching availabilities: " + e.getMessage());
+            return ResponseEntity.status(e.getStatusCode()).build();
+        }
+    }
+
+    /**
+     * Get the summary of every availability.
+     *
+     * @return Summaries of all availabilities.
+     */
+    @GetMapping("/summary")
+    @IsAdmin
+    @Produces(MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<AvailabilitySummary>> getAvailabilitySummaries() {
+        List<AvailabilitySummary> summaries = availabilityService.getAvailabilitySummaries();
+        logger.info("Got all availability summaries");
+        return ResponseEntity.ok(summaries);
+    }
+
+    /**
+     * Get a page of availability summaries ordered by start date.
+     *
+     * @param size  Page size.
+     * @param token Continuation token returned with the previous page.
+     * @return Page of availability summaries with the token of the next page.
+     */
+    @GetMapping("/summary/page")
+    @IsAdmin
+    @Produces(MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<KeysetPage<AvailabilitySummary>> getAvailabilitySummaryPage(@RequestParam(value = "size", required = false) Integer size, @RequestParam(value = "token", required = false) String token) {
+        try {
+            KeysetPage<AvailabilitySummary> page = availabilityService.getAvailabilitySummaryPage(size, token);
+            logger.info("Got availability summary page");
+            return ResponseEntity.ok(page);
+        } catch (HttpClientErrorException e) {
+            logger.error("Error while getting availability summary page: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Search the summaries of the availabilities overlapping a date window.
+     *
+     * @param from Window start.
+     * @param to   Window end.
+     * @return Summaries of the availabilities overlapping the window.
+     */
+    @GetMapping("/summary/search")
+    @Produces(MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<AvailabilitySummary>> searchAvailabilitySummaries(@RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from, @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        try {
+            List<AvailabilitySummary> summaries = availabilityService.searchAvailabilitySummaries(from, to);
+            logger.info("Got availability summaries between " + from + " and " + to);
+            return ResponseEntity.ok(summaries);
+        } catch (HttpClientErrorException e) {
+            logger.error("Error while searching availability summaries: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (HttpServerErrorException e) {
+            logger.error("Error while searching availability summaries: " + e.getMessage());
+            return ResponseEntity.status(e.getStatusCode()).build();
+        }
+    }
+
+    /**
+     * Filter the availabilities by place, job category and date window, one keyset page at a time.
+     *
+     * @param place         Place the availability must include.
+     * @param jobCategoryId Job category of the availability.
+     * @param from          Start of the window the availability must overlap.
+     * @param to            End of the window the availability must overlap.
+     * @param covering      Whether the availability must cover the whole window instead of overlapping it.
+     * @param size          Page size.
+     * @param token         Continuation token returned with the previous page.
+     * @return Page of the matching availabilities.
+     */
+    @GetMapping("/filter")
+    @Produces(MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<KeysetPage<Availability>> filterAvailabilities(@RequestParam(value = "place", required = false) String place,
+                                                                         @RequestParam(value = "jobCategoryId", required = false) UUID jobCategoryId,
+                                                                         @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                                         @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                                                         @RequestParam(value = "covering", defaultValue = "false") boolean covering,
+                                                                         @RequestParam(value = "size", required = false) Integer size,
+                                                                         @RequestParam(value = "token", required = false) String token) {
+        try {
+            KeysetPage<Availability> page = availabilityService.filterAvailabilities(place, jobCategoryId, from, to, covering, size, token);
+            logger.info("Got filtered availabilities");
+            return ResponseEntity.ok(page);
+        } catch (HttpClientErrorException e) {
+            logger.error("Error while filtering availabilities: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Get the weekly availability counts of a job category.
+     *
+     * @param jobCategoryId Job category id.
+     * @param from          Any day of the first week.
+     * @param to            Any day of the last week.
+     * @return Counts by week start (Monday).
+     */
+    @GetMapping("/statistics/job-category/{jobCategoryId}")
+    @IsAdmin
+    @Produces(MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<SortedMap<LocalDate, Integer>> getJobCategoryStatistics(@PathVariable("jobCategoryId") UUID jobCategoryId,
+                                                                                 @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                                 @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            SortedMap<LocalDate, Integer> statistics = availabilityService.getJobCategoryStatistics(jobCategoryId, from, to);
+            logger.info("Got availability statistics of job category " + jobCategoryId);
+            return ResponseEntity.ok(statistics);
+        } catch (HttpClientErrorException e) {
+            logger.error("Error while getting availability statistics: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Get the weekly availability counts of a place.
+     *
+     * @param place Place.
+     * @param from  Any day of the first week.
+     * @param to    Any day of the last week.
+     * @return Counts by week start (Monday).
+     */
+    @GetMapping("/statistics/place/{place}")
+    @IsAdmin
+    @Produces(MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<SortedMap<LocalDate, Integer>> getPlaceStatistics(@PathVariable("place") String place,
+                                                                           @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                           @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            SortedMap<LocalDate, Integer> statistics = availabilityService.getPlaceStatistics(place, from, to);
+            logger.info("Got availability statistics of place " + place);
+            return ResponseEntity.ok(statistics);
+        } catch (HttpClientErrorException e) {
+            logger.error("Error while getting availability statistics: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Recompute the availability statistics from the table.
+     *
+     * @return No content.
+     */
+    @PostMapping("/statistics/rebuild")
+    @IsAdmin
+    public ResponseEntity<Void> rebuildStatistics() {
+        availabilityService.rebuildStatistics();
+        logger.info("Rebuilt availability statistics");
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Find the availabilities matching a job offer, best first.
+     *
+     * @param jobOffer Job offer with its window, and optionally its places and job category.
+     * @param limit    Maximum number of matches.
+     * @return Matching availabilities with their score.
+     */
+    @PostMapping("/match")
+    @Consumes(MediaType.APPLICATION_JSON_VALUE)
+    @Produces(MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<AvailabilityMatchDTO>> matchAvailabilities(@RequestBody JobOfferDTO jobOffer, @RequestParam(value = "limit", required = false) Integer limit) {
+        try {
+            List<AvailabilityMatchDTO> matches = availabilityService.matchAvailabilities(jobOffer, limit);
+            logger.info("Got availabilities matching a job offer");
+            return ResponseEntity.ok(matches);
+        } catch (HttpClientErrorException e) {
+            logger.error("Error while matching availabilities: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (HttpServerErrorException e) {
+            logger.error("Error while matching availabilities: " + e.getMessage());
+            return ResponseEntity.status(e.getStatusCode()).build();
+        }
+    }
+
     /**
      * Get availability by id.
+     * The response carries the version of the availability as ETag, and is not sent again while it matches If-None-Match.
      *
      * @param id Availability id.
      * @return Availability with the specified id.
@@ -63,7 +319,8 @@ public class AvailabilityController {
         try {
             Availability availability = availabilityService.getAvailabilityById(id);
             logger.info("Got availability with id " + id);
-            return ResponseEntity.ok(availability);
+            // A matching If-None-Match turns this response into a 304 before the body is written
+            return ResponseEntity.ok().eTag(toETag(availability.getVersion())).body(availability);
         } catch (HttpClientErrorException e) {
             logger.error("Error while getting availability with id " + id + ": " + e.getMessage());
             return ResponseEntity.notFound().build();
@@ -72,23 +329,56 @@ public class AvailabilityController {
 
     /**
      * Get detailed availability by id.
+     * The ETag covers the version of the availability and its job category, which the API may rename,
+     * so the detailed availability is built before the conditional headers are checked.
      *
-     * @param id Availability id.
+     * @param id      Availability id.
+     * @param jwt     Token of the caller, forwarded to the job category API.
+     * @param request Request holding the conditional headers.
      * @return Detailed availability with the specified id.
      */
     @GetMapping("/detailed/{id}")
     @Produces(MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<DetailedAvailabilityDTO> getDetailedAvailabilityById(@PathVariable("id") UUID id, @RequestHeader("Authorization") String token) {
+    public ResponseEntity<DetailedAvailabilityDTO> getDetailedAvailabilityById(@PathVariable("id") UUID id, @AuthenticationPrincipal Jwt jwt, WebRequest request) {
         try {
-            DetailedAvailabilityDTO availability = availabilityService.getDetailedAvailabilityById(id, token);
+            // Read before the availability, so that a concurrent update can only make the ETag older than the body
+            long version = availabilityService.getAvailabilityVersion(id);
+            DetailedAvailabilityDTO availability = availabilityService.getDetailedAvailabilityById(id, toAuthorization(jwt));
+            String eTag = toDetailedETag(version, availability.getJobCategory());
+            if (request.checkNotModified(eTag)) {
+                logger.info("Availability with id " + id + " not modified");
+                // The 304 status and the ETag are already set
+                return null;
+            }
             logger.info("Got availability with id " + id);
-            return ResponseEntity.ok(availability);
+            return ResponseEntity.ok().eTag(eTag).body(availability);
         } catch (HttpClientErrorException e) {
             logger.error("Error while getting availability with id " + id + ": " + e.getMessage());
             return ResponseEntity.notFound().build();
         }
     }
 
+    /**
+     * Get detailed availabilities by id.
+     *
+     * @param ids Availability ids.
+     * @param jwt Token of the caller, forwarded to the job category API.
+     * @return Detailed availabilities in the order of the ids.
+     */
+    @PostMapping("/detailed/batch")
+    @Consumes(MediaType.APPLICATION_JSON_VALUE)
+    @Produces(MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<DetailedAvailabilityDTO>> getDetailedAvailabilitiesByIds(@RequestBody List<UUID> ids, @AuthenticationPrincipal Jwt jwt) {
+        try {
+            List<DetailedAvailabilityDTO> availabilities = availabilityService.getDetailedAvailabilitiesByIds(ids, toAuthorization(jwt));
+            logger.info("Got " + availabilities.size() + " detailed availabilities");
+            return ResponseEntity.ok(availabilities);
+        } catch (HttpClientErrorException e) {
+            logger.error("Error while getting detailed availabilities: " + e.getMessage());
+            return ResponseEntity.status(e.getStatusCode()).build();
+        }
+    }
+
     /**
      * Create an availability.
      *
@@ -112,25 +402,54 @@ public class AvailabilityController {
 
     /**
      * Update an availability.
+     * With an If-Match header, the update is only applied if the availability is still at that version.
      *
      * @param availabilityDTO Availability to update.
+     * @param ifMatch         ETag of the version the client last saw.
      * @return Updated availability.
      */
     @PutMapping("/")
     @IsCandidate
     @Consumes(MediaType.APPLICATION_JSON_VALUE)
     @Produces(MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Availability> updateAvailability(@RequestBody AvailabilityDTO availabilityDTO) {
+    public ResponseEntity<Availability> updateAvailability(@RequestBody AvailabilityDTO availabilityDTO, @RequestHeader(value = "If-Match", required = false) String ifMatch) {
         try {
-            Availability availability = availabilityService.updateAvailability(availabilityDTO);
+            Availability availability = availabilityService.updateAvailability(availabilityDTO, fromETag(ifMatch));
             logger.info("Updated availability with id " + availability.getId());
-            return ResponseEntity.ok(availability);
+            return ResponseEntity.ok().eTag(toETag(availability.getVersion())).body(availability);
         } catch (HttpClientErrorException e) {
             logger.error("Error while updating availability: " + e.getMessage());
+            if (e.getStatusCode() == HttpStatus.PRECONDITION_FAILED || e.getStatusCode() == HttpStatus.CONFLICT) {
+                return ResponseEntity.status(e.getStatusCode()).build();
+            }
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    /**
+     * Change some fields of an availability, the fields missing from the body being left unchanged.
+     * With an If-Match header, the change is only applied if the availability is still at that version.
+     *
+     * @param id      Availability id.
+     * @param patch   Fields to change.
+     * @param ifMatch ETag of the version the client last saw.
+     * @return Patched availability.
+     */
+    @PatchMapping("/{id}")
+    @IsCandidate
+    @Consumes(MediaType.APPLICATION_JSON_VALUE)
+    @Produces(MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Availability> patchAvailability(@PathVariable("id") UUID id, @RequestBody AvailabilityDTO patch, @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        try {
+            Availability availability = availabilityService.patchAvailability(id, patch, fromETag(ifMatch));
+            logger.info("Patched availability with id " + id);
+            return ResponseEntity.ok().eTag(toETag(availability.getVersion())).body(availability);
+        } catch (HttpClientErrorException e) {
+            logger.error("Error while patching availability: " + e.getMessage());
+            return ResponseEntity.status(e.getStatusCode()).build();
+        }
+    }
+
     /**
      * Delete an availability.
      *
@@ -150,4 +469,122 @@ public class AvailabilityController {
             return new ResponseEntity<>(false, HttpStatus.NOT_FOUND);
         }
     }
+
+    /**
+     * Create several availabilities.
+     *
+     * @param availabilityDTOs Availabilities to create.
+     * @return Result of each availability, in request order.
+     */
+    @PostMapping("/bulk")
+    @IsCandidate
+    @Consumes(MediaType.APPLICATION_JSON_VALUE)
+    @Produces(MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<BulkItemResult>> createAvailabilities(@RequestBody List<AvailabilityDTO> availabilityDTOs) {
+        try {
+            List<BulkItemResult> results = availabilityService.createAvailabilities(availabilityDTOs);
+            logger.info("Created availabilities in bulk");
+            return ResponseEntity.ok(results);
+        } catch (HttpClientErrorException e) {
+            logger.error("Error while creating availabilities: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Update several availabilities.
+     *
+     * @param availabilityDTOs Availabilities to update.
+     * @return Result of each availability, in request order.
+     */
+    @PutMapping("/bulk")
+    @IsCandidate
+    @Consumes(MediaType.APPLICATION_JSON_VALUE)
+    @Produces(MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<BulkItemResult>> updateAvailabilities(@RequestBody List<AvailabilityDTO> availabilityDTOs) {
+        try {
+            List<BulkItemResult> results = availabilityService.updateAvailabilities(availabilityDTOs);
+            logger.info("Updated availabilities in bulk");
+            return ResponseEntity.ok(results);
+        } catch (HttpClientErrorException e) {
+            logger.error("Error while updating availabilities: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Delete several availabilities.
+     *
+     * @param ids Ids of the availabilities to delete.
+     * @return Result of each id, in request order.
+     */
+    @DeleteMapping("/bulk")
+    @IsCandidate
+    @Consumes(MediaType.APPLICATION_JSON_VALUE)
+    @Produces(MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<BulkItemResult>> deleteAvailabilities(@RequestBody List<UUID> ids) {
+        try {
+            List<BulkItemResult> results = availabilityService.deleteAvailabilities(ids);
+            logger.info("Deleted availabilities in bulk");
+            return ResponseEntity.ok(results);
+        } catch (HttpClientErrorException e) {
+            logger.error("Error while deleting availabilities: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Build the ETag of an availability version.
+     *
+     * @param version Availability version.
+     * @return ETag.
+     */
+    private String toETag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Build the ETag of a detailed availability, which changes with the availability version and with its job category.
+     *
+     * @param version     Availability version.
+     * @param jobCategory Job category embedded in the detailed availability.
+     * @return ETag.
+     */
+    private String toDetailedETag(long version, JobCategoryDTO jobCategory) {
+        int jobCategoryHash = jobCategory == null ? 0 : Objects.hash(jobCategory.getId(), jobCategory.getName());
+        return "\"" + version + "-" + Integer.toHexString(jobCategoryHash) + "\"";
+    }
+
+    /**
+     * Build the Authorization header value of the caller, forwarded to the job category API.
+     *
+     * @param jwt Token of the caller.
+     * @return Authorization header value.
+     */
+    private String toAuthorization(Jwt jwt) {
+        return "Bearer " + jwt.getTokenValue();
+    }
+
+    /**
+     * Read the availability version of an If-Match header.
+     *
+     * @param ifMatch If-Match header.
+     * @return Version, null if the header is absent or matches any version.
+     * @throws HttpClientErrorException If the header is not a version ETag.
+     */
+    private Long fromETag(String ifMatch) throws HttpClientErrorException {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String eTag = ifMatch.trim();
+        if (eTag.startsWith("W/")) {
+            eTag = eTag.substring(2);
+        }
+        try {
+            return Long.parseLong(eTag.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            // An ETag we never issued cannot match the current version
+            throw new HttpClientErrorException(HttpStatus.PRECONDITION_FAILED, "Unknown ETag");
+        }
+    }
 }
@@ -1,22 +1,63 @@
 package fr.polytech.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import fr.polytech.event.AvailabilityChangedEvent;
+import fr.polytech.index.AvailabilityIntervalIndex;
+import fr.polytech.index.AvailabilityMatchIndex;
+import fr.polytech.index.AvailabilityStatistics;
 import fr.polytech.model.Availability;
 import fr.polytech.model.AvailabilityDTO;
+import fr.polytech.model.AvailabilityMatchDTO;
+import fr.polytech.model.AvailabilitySummary;
+import fr.polytech.model.BulkItemResult;
 import fr.polytech.model.DetailedAvailabilityDTO;
 import fr.polytech.model.JobCategoryDTO;
+import fr.polytech.model.JobOfferDTO;
+import fr.polytech.model.KeysetPage;
 import fr.polytech.repository.AvailabilityRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import jakarta.ws.rs.NotFoundException;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed("availability.service")
 public class AvailabilityService {
 
     /**
@@ -24,12 +65,47 @@ public class AvailabilityService {
      */
     private final Logger logger = LoggerFactory.getLogger(AvailabilityService.class);
 
+    /**
+     * Number of ids per IN clause, well below the bind parameter limit of PostgreSQL.
+     */
+    private static final int ID_CHUNK_SIZE = 1000;
+
     @Autowired
     private AvailabilityRepository availabilityRepository;
 
     @Autowired
     private JobCategoryService jobCategoryService;
 
+    @Autowired
+    private AvailabilityIntervalIndex availabilityIntervalIndex;
+
+    @Autowired
+    private AvailabilityMatchIndex availabilityMatchIndex;
+
+    @Autowired
+    private AvailabilityStatistics availabilityStatistics;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${availability.pagination.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${availability.pagination.max-size:500}")
+    private int maxPageSize;
+
+    @Value("${availability.batch.max-size:500}")
+    private int maxBatchSize;
+
+    @Value("${availability.max-duration:3650d}")
+    private Duration maxDuration;
+
     /**
      * Get all availabilities.
      *
@@ -37,7 +113,423 @@ public class AvailabilityService {
      */
     public List<Availability> getAllAvailabilities() {
         logger.info("Getting all availabilities");
-        return availabilityRepository.findAll();
+        return availabilityRepository.findAllWithPlaces();
+    }
+
+    /**
+     * Get the summary of every availability, without loading the entities.
+     *
+     * @return Summaries of all availabilities, ordered by start date.
+     */
+    public List<AvailabilitySummary> getAvailabilitySummaries() {
+        logger.info("Getting all availability summaries");
+        return availabilityRepository.findAllSummaries();
+    }
+
+    /**
+     * Export all availabilities as newline-delimited JSON.
+     * Rows are read from a database cursor with their places and detached once written, so memory use does not grow with the table.
+     *
+     * @param outputStream Stream to write the availabilities to.
+     * @throws IOException If an error occurs while writing.
+     */
+    @Transactional(readOnly = true)
+    public void exportAvailabilities(OutputStream outputStream) throws IOException {
+        logger.info("Exporting all availabilities");
+        ObjectWriter writer = objectMapper.writerFor(Availability.class);
+        long count = 0;
+
+        // Neither read nor fill the second-level cache, so that a full export does not evict the hot entries;
+        // set on the session since the query hint does not stop the puts of the loaded entities and place lists
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode cacheMode = session.getCacheMode();
+        session.setCacheMode(CacheMode.IGNORE);
+        try (Stream<Availability> availabilities = availabilityRepository.streamAll()) {
+            Iterator<Availability> iterator = availabilities.iterator();
+            while (iterator.hasNext()) {
+                Availability availability = iterator.next();
+                outputStream.write(writer.writeValueAsBytes(availability));
+                outputStream.write('\n');
+                entityManager.detach(availability);
+                count++;
+            }
+        } finally {
+            session.setCacheMode(cacheMode);
+        }
+
+        outputStream.flush();
+        logger.debug("Exported " + count + " availabilities");
+    }
+
+    /**
+     * Get a page of availabilities ordered by (start date, id).
+     * Pages are located with the position of the previous page's last row instead of an offset,
+     * so each page costs an index range scan whatever its depth.
+     *
+     * @param size  Page size, the configured default when null.
+     * @param token Continuation token returned with the previous page, null for the first page.
+     * @return Page of availabilities.
+     * @throws HttpClientErrorException If the size or the token is invalid.
+     */
+    public KeysetPage<Availability> getAvailabilityPage(Integer size, String token) throws HttpClientErrorException {
+        logger.info("Getting availability page");
+
+        int pageSize = checkPageSize(size);
+
+        // Fetch one more row to know whether there is a next page
+        PageRequest pageRequest = PageRequest.of(0, pageSize + 1);
+        List<Availability> availabilities;
+        if (token == null || token.isEmpty()) {
+            availabilities = availabilityRepository.findFirstPage(pageRequest);
+        } else {
+            Availability last = decodePageToken(token);
+            availabilities = availabilityRepository.findPageAfter(last.getStartDate(), last.getId(), pageRequest);
+        }
+
+        String nextToken = null;
+        if (availabilities.size() > pageSize) {
+            availabilities = availabilities.subList(0, pageSize);
+            nextToken = encodePageToken(availabilities.get(pageSize - 1));
+        }
+
+        logger.debug("Returning " + availabilities.size() + " availabilities");
+        return new KeysetPage<>(availabilities, nextToken);
+    }
+
+    /**
+     * Get a keyset page of the availabilities matching the given criteria, ordered by (start date, id).
+     * The criteria are combined in a single query, each one being optional.
+     *
+     * @param place         Place the availability must include.
+     * @param jobCategoryId Job category of the availability.
+     * @param from          Start of the window the availability must overlap.
+     * @param to            End of the window the availability must overlap.
+     * @param covering      Whether the availability must cover the whole window instead of overlapping it.
+     * @param size          Page size, the default one if null.
+     * @param token         Continuation token of the previous page, null for the first page.
+     * @return Page of the matching availabilities with the token of the next page.
+     * @throws HttpClientErrorException If the criteria, the page size or the token are invalid.
+     */
+    public KeysetPage<Availability> filterAvailabilities(String place, UUID jobCategoryId, Instant from, Instant to, boolean covering, Integer size, String token) throws HttpClientErrorException {
+        logger.info("Filtering availabilities");
+
+        int pageSize = checkPageSize(size);
+        if (from != null && to != null && from.isAfter(to)) {
+            logger.error("Error while filtering availabilities: from must be before to");
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "From must be before to");
+        }
+        if (covering && (from == null || to == null)) {
+            logger.error("Error while filtering availabilities: missing window bounds");
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Missing window bounds");
+        }
+        Availability after = token == null || token.isEmpty() ? null : decodePageToken(token);
+
+        // Fetch one more row to know whether there is a next page
+        List<Availability> availabilities = availabilityRepository.findFiltered(place, jobCategoryId, from, to, covering, after, pageSize + 1);
+
+        String nextToken = null;
+        if (availabilities.size() > pageSize) {
+            availabilities = availabilities.subList(0, pageSize);
+            nextToken = encodePageToken(availabilities.get(pageSize - 1));
+        }
+
+        logger.debug("Returning " + availabilities.size() + " availabilities");
+        return new KeysetPage<>(availabilities, nextToken);
+    }
+
+    /**
+     * Check a requested page size.
+     *
+     * @param size Requested page size, null for the default one.
+     * @return Page size to use.
+     * @throws HttpClientErrorException If the page size is out of bounds.
+     */
+    private int checkPageSize(Integer size) throws HttpClientErrorException {
+        int pageSize = size == null ? defaultPageSize : size;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            logger.error("Error while getting an availability page: invalid page size");
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Page size must be between 1 and " + maxPageSize);
+        }
+        return pageSize;
+    }
+
+    /**
+     * Get a page of availability summaries ordered by (start date, id), without loading the entities.
+     * Pages and tokens are the same as the ones of the availability pages.
+     *
+     * @param size  Page size, the configured default when null.
+     * @param token Continuation token returned with the previous page, null for the first page.
+     * @return Page of availability summaries.
+     * @throws HttpClientErrorException If the size or the token is invalid.
+     */
+    public KeysetPage<AvailabilitySummary> getAvailabilitySummaryPage(Integer size, String token) throws HttpClientErrorException {
+        logger.info("Getting availability summary page");
+
+        int pageSize = checkPageSize(size);
+
+        // Fetch one more row to know whether there is a next page
+        PageRequest pageRequest = PageRequest.of(0, pageSize + 1);
+        List<AvailabilitySummary> summaries;
+        if (token == null || token.isEmpty()) {
+            summaries = availabilityRepository.findFirstSummaryPage(pageRequest);
+        } else {
+            Availability last = decodePageToken(token);
+            summaries = availabilityRepository.findSummaryPageAfter(last.getStartDate(), last.getId(), pageRequest);
+        }
+
+        String nextToken = null;
+        if (summaries.size() > pageSize) {
+            summaries = summaries.subList(0, pageSize);
+            AvailabilitySummary last = summaries.get(pageSize - 1);
+            nextToken = encodePageToken(last.startDate(), last.id());
+        }
+
+        logger.debug("Returning " + summaries.size() + " availability summaries");
+        return new KeysetPage<>(summaries, nextToken);
+    }
+
+    /**
+     * Encode the keyset position of an availability into an opaque token.
+     *
+     * @param availability Last availability of a page.
+     * @return Continuation token.
+     */
+    private String encodePageToken(Availability availability) {
+        return encodePageToken(availability.getStartDate(), availability.getId());
+    }
+
+    /**
+     * Encode a keyset position into an opaque token.
+     * The start date keeps its full precision, a truncated one would make the next page start again on the same row.
+     *
+     * @param startDate Start date of the last availability of a page.
+     * @param id        Id of the last availability of a page.
+     * @return Continuation token.
+     */
+    private String encodePageToken(Instant startDate, UUID id) {
+        String position = startDate + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a continuation token into the keyset position it holds.
+     *
+     * @param token Continuation token.
+     * @return Availability holding only the start date and the id of the position.
+     * @throws HttpClientErrorException If the token is invalid.
+     */
+    private Availability decodePageToken(String token) throws HttpClientErrorException {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // The ISO-8601 start date holds colons too, the id does not
+            int separator = position.lastIndexOf(':');
+            Availability availability = new Availability();
+            availability.setStartDate(Instant.parse(position.substring(0, separator)));
+            availability.setId(UUID.fromString(position.substring(separator + 1)));
+            return availability;
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            logger.error("Error while getting an availability page: invalid token");
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Invalid page token");
+        }
+    }
+
+    /**
+     * Search the availabilities overlapping a date window.
+     *
+     * @param from Window start.
+     * @param to   Window end.
+     * @return List of the availabilities overlapping the window, ordered by start date.
+     * @throws HttpClientErrorException If the window is invalid.
+     */
+    public List<Availability> searchAvailabilities(Instant from, Instant to) throws HttpClientErrorException {
+        logger.info("Searching availabilities between " + from + " and " + to);
+
+        checkWindow(from, to);
+
+        List<UUID> ids = availabilityIntervalIndex.findOverlapping(from.toEpochMilli(), to.toEpochMilli());
+        List<Availability> availabilities = findByIdChunks(ids, availabilityRepository::findAllWithPlacesByIdIn);
+        // The index may be behind the table, keep the rows that overlap the window now
+        availabilities.removeIf(availability -> !overlaps(availability.getStartDate(), availability.getEndDate(), from, to));
+        availabilities.sort(Comparator.comparing(Availability::getStartDate).thenComparing(Availability::getId));
+
+        logger.debug("Found " + availabilities.size() + " availabilities");
+        return availabilities;
+    }
+
+    /**
+     * Search the summaries of the availabilities overlapping a date window, without loading the entities.
+     *
+     * @param from Window start.
+     * @param to   Window end.
+     * @return Summaries of the availabilities overlapping the window, ordered by start date.
+     * @throws HttpClientErrorException If the window is invalid.
+     */
+    public List<AvailabilitySummary> searchAvailabilitySummaries(Instant from, Instant to) throws HttpClientErrorException {
+        logger.info("Searching availability summaries between " + from + " and " + to);
+
+        checkWindow(from, to);
+
+        List<UUID> ids = availabilityIntervalIndex.findOverlapping(from.toEpochMilli(), to.toEpochMilli());
+        List<AvailabilitySummary> summaries = findByIdChunks(ids, availabilityRepository::findSummariesByIdIn);
+        // The index may be behind the table, keep the rows that overlap the window now
+        summaries.removeIf(summary -> !overlaps(summary.startDate(), summary.endDate(), from, to));
+        summaries.sort(Comparator.comparing(AvailabilitySummary::startDate).thenComparing(AvailabilitySummary::id));
+
+        logger.debug("Found " + summaries.size() + " availability summaries");
+        return summaries;
+    }
+
+    /**
+     * Load rows by id, a chunk of ids per query.
+     *
+     * @param ids    Ids of the rows.
+     * @param finder Query loading the rows of a chunk of ids.
+     * @return Rows found, in chunk order.
+     */
+    private static <T> List<T> findByIdChunks(List<UUID> ids, Function<List<UUID>, List<T>> finder) {
+        List<T> rows = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i += ID_CHUNK_SIZE) {
+            rows.addAll(finder.apply(ids.subList(i, Math.min(i + ID_CHUNK_SIZE, ids.size()))));
+        }
+        return rows;
+    }
+
+    /**
+     * Tell whether a date range overlaps a window, bounds included as in the interval index.
+     *
+     * @param start Range start.
+     * @param end   Range end.
+     * @param from  Window start.
+     * @param to    Window end.
+     * @return Whether they overlap.
+     */
+    private static boolean overlaps(Instant start, Instant end, Instant from, Instant to) {
+        return start != null && end != null && !start.isAfter(to) && !end.isBefore(from);
+    }
+
+    /**
+     * Check a search window, and that the interval index can answer.
+     *
+     * @param from Window start.
+     * @param to   Window end.
+     * @throws HttpClientErrorException If a bound is missing or the window is reversed.
+     * @throws HttpServerErrorException If the interval index is not loaded yet.
+     */
+    private void checkWindow(Instant from, Instant to) throws HttpClientErrorException, HttpServerErrorException {
+        if (from == null || to == null) {
+            logger.error("Error while searching availabilities: missing window bounds");
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Missing window bounds");
+        }
+        if (from.isAfter(to)) {
+            logger.error("Error while searching availabilities: from must be before to");
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "From must be before to");
+        }
+        if (!availabilityIntervalIndex.isLoaded()) {
+            logger.error("Error while searching availabilities: interval index not loaded");
+            throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE, "Availability index is loading");
+        }
+    }
+
+    /**
+     * Find the availabilities matching a job offer, best first.
+     * Candidates come from the in-memory match index, then only the returned availabilities are loaded.
+     *
+     * @param jobOffer Job offer with its window, and optionally its places and job category.
+     * @param limit    Maximum number of matches, the default page size if null.
+     * @return Matching availabilities with their score, ordered by decreasing score.
+     * @throws HttpClientErrorException If the job offer or the limit are invalid.
+     * @throws HttpServerErrorException If the match index is not loaded yet.
+     */
+    public List<AvailabilityMatchDTO> matchAvailabilities(JobOfferDTO jobOffer, Integer limit) throws HttpClientErrorException, HttpServerErrorException {
+        logger.info("Matching availabilities with a job offer");
+
+        int maxMatches = checkPageSize(limit);
+        if (jobOffer == null || jobOffer.getStartDate() == null || jobOffer.getEndDate() == null) {
+            logger.error("Error while matching availabilities: missing offer window");
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Missing offer window");
+        }
+        if (jobOffer.getStartDate().isAfter(jobOffer.getEndDate())) {
+            logger.error("Error while matching availabilities: start date must be before end date");
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Start date must be before end date");
+        }
+        if (!availabilityMatchIndex.isLoaded()) {
+            logger.error("Error while matching availabilities: match index not loaded");
+            throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE, "Availability index is loading");
+        }
+
+        List<String> places = jobOffer.getPlaceList() == null ? List.of() : jobOffer.getPlaceList();
+        List<AvailabilityMatchIndex.Match> matches = availabilityMatchIndex.findMatches(jobOffer.getStartDate().toEpochMilli(), jobOffer.getEndDate().toEpochMilli(), places, jobOffer.getJobCategoryId(), maxMatches);
+        Map<UUID, Availability> availabilities = availabilityRepository.findAllWithPlacesByIdIn(matches.stream().map(AvailabilityMatchIndex.Match::id).toList()).stream()
+                .collect(Collectors.toMap(Availability::getId, Function.identity()));
+
+        List<AvailabilityMatchDTO> result = new ArrayList<>(matches.size());
+        for (AvailabilityMatchIndex.Match match : matches) {
+            Availability availability = availabilities.get(match.id());
+            // Skip an availability deleted since the index was queried
+            if (availability != null) {
+                result.add(new AvailabilityMatchDTO(availability, match.score()));
+            }
+        }
+
+        logger.debug("Found " + result.size() + " matching availabilities");
+        return result;
+    }
+
+    /**
+     * Get the weekly availability counts of a job category, served from the incrementally maintained statistics.
+     * The counts are the ones of this instance, which sees the writes of the other instances at the nightly repair.
+     *
+     * @param jobCategoryId Job category id.
+     * @param from          Any day of the first week.
+     * @param to            Any day of the last week.
+     * @return Counts by week start (Monday), weeks without availability omitted.
+     * @throws HttpClientErrorException If the weeks are invalid.
+     */
+    public SortedMap<LocalDate, Integer> getJobCategoryStatistics(UUID jobCategoryId, LocalDate from, LocalDate to) throws HttpClientErrorException {
+        logger.info("Getting availability statistics of job category " + jobCategoryId);
+        checkWeeks(from, to);
+        return availabilityStatistics.getJobCategoryCounts(jobCategoryId, from, to);
+    }
+
+    /**
+     * Get the weekly availability counts of a place, served from the incrementally maintained statistics.
+     * The counts are the ones of this instance, which sees the writes of the other instances at the nightly repair.
+     *
+     * @param place Place.
+     * @param from  Any day of the first week.
+     * @param to    Any day of the last week.
+     * @return Counts by week start (Monday), weeks without availability omitted.
+     * @throws HttpClientErrorException If the weeks are invalid.
+     */
+    public SortedMap<LocalDate, Integer> getPlaceStatistics(String place, LocalDate from, LocalDate to) throws HttpClientErrorException {
+        logger.info("Getting availability statistics of place " + place);
+        checkWeeks(from, to);
+        return availabilityStatistics.getPlaceCounts(place, from, to);
+    }
+
+    /**
+     * Recompute the availability statistics of this instance from the table.
+     */
+    public void rebuildStatistics() {
+        availabilityStatistics.repair();
+    }
+
+    /**
+     * Check the week range of a statistics request.
+     *
+     * @param from Any day of the first week.
+     * @param to   Any day of the last week.
+     * @throws HttpClientErrorException If a bound is missing or the range is reversed.
+     */
+    private void checkWeeks(LocalDate from, LocalDate to) throws HttpClientErrorException {
+        if (from == null || to == null) {
+            logger.error("Error while getting availability statistics: missing week bounds");
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Missing week bounds");
+        }
+        if (from.isAfter(to)) {
+            logger.error("Error while getting availability statistics: from must be before to");
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "From must be before to");
+        }
     }
 
     /**
@@ -67,19 +559,17 @@ public class AvailabilityService {
      * @param availabilityDTO Availability to create.
      * @return Created availability.
      */
+    @Transactional
     public Availability createAvailability(AvailabilityDTO availabilityDTO) {
         logger.info("Creating availability");
 
         checkAttributes(availabilityDTO);
 
         Availability availability = new Availability();
-        availability.setStartDate(availabilityDTO.getStartDate());
-        availability.setEndDate(availabilityDTO.getEndDate());
-        availability.setJobCategoryId(availabilityDTO.getJobCategoryId());
-        availability.setJobTitle(availabilityDTO.getJobTitle());
-        availability.setPlaceList(availabilityDTO.getPlaceList());
+        applyAttributes(availability, availabilityDTO);
 
         availabilityRepository.save(availability);
+        eventPublisher.publishEvent(AvailabilityChangedEvent.created(availability));
         logger.debug("Created availability with id " + availability.getId());
         return availability;
     }
@@ -91,7 +581,22 @@ public class AvailabilityService {
      * @return Updated availability.
      * @throws HttpClientErrorException If the availability is not found.
      */
+    @Transactional
     public Availability updateAvailability(AvailabilityDTO availabilityDTO) throws HttpClientErrorException {
+        return updateAvailability(availabilityDTO, null);
+    }
+
+    /**
+     * Update an availability if it is still at the expected version.
+     * A concurrent update between the read and the write is detected by the version check of the update statement.
+     *
+     * @param availabilityDTO Availability to update.
+     * @param expectedVersion Version the client last saw, null to skip the check.
+     * @return Updated availability.
+     * @throws HttpClientErrorException If the availability is not found, or has changed since the expected version.
+     */
+    @Transactional
+    public Availability updateAvailability(AvailabilityDTO availabilityDTO, Long expectedVersion) throws HttpClientErrorException {
         logger.info("Updating availability with id " + availabilityDTO.getId());
 
         checkAttributes(availabilityDTO);
@@ -103,47 +608,305 @@ public class AvailabilityService {
             // If the availability is not found, throw an exception
             throw new HttpClientErrorException(HttpStatus.NOT_FOUND, "Availability not found");
         }
+        if (expectedVersion != null && availability.getVersion() != expectedVersion) {
+            logger.error("Error while updating an availability: version " + availability.getVersion() + " does not match " + expectedVersion);
+            throw new HttpClientErrorException(HttpStatus.PRECONDITION_FAILED, "Availability has been modified");
+        }
 
-        availability.setStartDate(availabilityDTO.getStartDate());
-        availability.setEndDate(availabilityDTO.getEndDate());
-        availability.setJobCategoryId(availabilityDTO.getJobCategoryId());
-        availability.setJobTitle(availabilityDTO.getJobTitle());
-        availability.setPlaceList(availabilityDTO.getPlaceList());
+        applyAttributes(availability, availabilityDTO);
 
-        availabilityRepository.save(availability);
+        try {
+            // Flush now so that a concurrent update surfaces here rather than at commit
+            availability = availabilityRepository.saveAndFlush(availability);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            logger.error("Error while updating an availability: concurrent update");
+            throw new HttpClientErrorException(expectedVersion != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT, "Availability has been modified");
+        }
+        eventPublisher.publishEvent(AvailabilityChangedEvent.updated(availability));
         logger.debug("Updated availability with id " + availability.getId());
         return availability;
     }
 
+    /**
+     * Apply the supplied fields to an availability, the null ones being left unchanged.
+     * Only the modified columns are updated, and the place list only if it differs.
+     *
+     * @param id              Availability id.
+     * @param patch           Fields to change.
+     * @param expectedVersion Version the client last saw, null to skip the check.
+     * @return Patched availability.
+     * @throws HttpClientErrorException If the availability is not found, the result is invalid, or it has changed since the expected version.
+     */
+    @Transactional
+    public Availability patchAvailability(UUID id, AvailabilityDTO patch, Long expectedVersion) throws HttpClientErrorException {
+        logger.info("Patching availability with id " + id);
+
+        if (patch == null) {
+            logger.error("Error while patching an availability: missing patch");
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Missing patch");
+        }
+
+        Availability availability = availabilityRepository.findById(id).orElse(null);
+
+        if (availability == null) {
+            logger.error("Error while getting an availability: availability not found");
+            // If the availability is not found, throw an exception
+            throw new HttpClientErrorException(HttpStatus.NOT_FOUND, "Availability not found");
+        }
+        if (expectedVersion != null && availability.getVersion() != expectedVersion) {
+            logger.error("Error while patching an availability: version " + availability.getVersion() + " does not match " + expectedVersion);
+            throw new HttpClientErrorException(HttpStatus.PRECONDITION_FAILED, "Availability has been modified");
+        }
+
+        if (patch.getStartDate() != null) {
+            availability.setStartDate(patch.getStartDate());
+        }
+        if (patch.getEndDate() != null) {
+            availability.setEndDate(patch.getEndDate());
+        }
+        if (patch.getJobCategoryId() != null) {
+            availability.setJobCategoryId(patch.getJobCategoryId());
+        }
+        if (patch.getJobTitle() != null) {
+            availability.setJobTitle(patch.getJobTitle());
+        }
+        if (patch.getPlaceList() != null) {
+            if (patch.getPlaceList().isEmpty()) {
+                logger.error("Error while patching an availability: place list is empty");
+                throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Place list is empty");
+            }
+            applyPlaceList(availability, patch.getPlaceList());
+        }
+        if (availability.getStartDate() != null && availability.getEndDate() != null && availability.getStartDate().isAfter(availability.getEndDate())) {
+            logger.error("Error while patching an availability: start date must be before end date");
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Start date must be before end date");
+        }
+
+        try {
+            // Flush now so that a concurrent update surfaces here rather than at commit
+            availability = availabilityRepository.saveAndFlush(availability);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            logger.error("Error while patching an availability: concurrent update");
+            throw new HttpClientErrorException(expectedVersion != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT, "Availability has been modified");
+        }
+        eventPublisher.publishEvent(AvailabilityChangedEvent.updated(availability));
+        logger.debug("Patched availability with id " + availability.getId());
+        return availability;
+    }
+
     /**
      * Delete an availability.
+     * A single delete statement is issued, its row count telling whether the availability existed.
      *
      * @param id Availability id.
      * @throws HttpClientErrorException If the availability is not found.
      */
+    @Transactional
     public void deleteAvailability(UUID id) throws HttpClientErrorException {
         logger.info("Deleting availability with id " + id);
 
-        Availability availability = availabilityRepository.findById(id).orElse(null);
-
-        if (availability == null) {
+        if (availabilityRepository.deleteByIdReturningCount(id) == 0) {
             logger.error("Error while getting an availability: availability not found");
             // If the availability is not found, throw an exception
             throw new HttpClientErrorException(HttpStatus.NOT_FOUND, "Availability not found");
         }
 
-        availabilityRepository.deleteById(id);
+        eventPublisher.publishEvent(AvailabilityChangedEvent.deleted(id));
         logger.debug("Deleted availability with id " + id);
     }
 
+    /**
+     * Create several availabilities.
+     * The whole batch is validated first, then the valid availabilities are inserted with JDBC batching.
+     *
+     * @param availabilityDTOs Availabilities to create.
+     * @return Result of each availability, in request order.
+     * @throws HttpClientErrorException If the batch is invalid.
+     */
+    @Transactional
+    public List<BulkItemResult> createAvailabilities(List<AvailabilityDTO> availabilityDTOs) throws HttpClientErrorException {
+        logger.info("Creating availabilities");
+        checkBatchSize(availabilityDTOs);
+
+        BulkItemResult[] results = new BulkItemResult[availabilityDTOs.size()];
+        List<Availability> availabilities = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        for (int index = 0; index < availabilityDTOs.size(); index++) {
+            AvailabilityDTO availabilityDTO = availabilityDTOs.get(index);
+            try {
+                checkAttributes(availabilityDTO);
+            } catch (HttpClientErrorException e) {
+                results[index] = new BulkItemResult(index, null, e.getStatusCode().value(), e.getStatusText());
+                continue;
+            }
+            Availability availability = new Availability();
+            applyAttributes(availability, availabilityDTO);
+            availabilities.add(availability);
+            indexes.add(index);
+        }
+
+        availabilityRepository.saveAll(availabilities);
+        for (int i = 0; i < availabilities.size(); i++) {
+            Availability availability = availabilities.get(i);
+            eventPublisher.publishEvent(AvailabilityChangedEvent.created(availability));
+            results[indexes.get(i)] = new BulkItemResult(indexes.get(i), availability.getId(), HttpStatus.CREATED.value(), null);
+        }
+
+        logger.debug("Created " + availabilities.size() + " availabilities");
+        return List.of(results);
+    }
+
+    /**
+     * Update several availabilities.
+     * The whole batch is validated first, the existing availabilities are loaded with a single query,
+     * then the updates are flushed with JDBC batching.
+     *
+     * @param availabilityDTOs Availabilities to update.
+     * @return Result of each availability, in request order.
+     * @throws HttpClientErrorException If the batch is invalid.
+     */
+    @Transactional
+    public List<BulkItemResult> updateAvailabilities(List<AvailabilityDTO> availabilityDTOs) throws HttpClientErrorException {
+        logger.info("Updating availabilities");
+        checkBatchSize(availabilityDTOs);
+
+        BulkItemResult[] results = new BulkItemResult[availabilityDTOs.size()];
+        List<UUID> ids = new ArrayList<>();
+        for (int index = 0; index < availabilityDTOs.size(); index++) {
+            AvailabilityDTO availabilityDTO = availabilityDTOs.get(index);
+            try {
+                checkAttributes(availabilityDTO);
+                if (availabilityDTO.getId() == null) {
+                    throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Missing id");
+                }
+                ids.add(availabilityDTO.getId());
+            } catch (HttpClientErrorException e) {
+                results[index] = new BulkItemResult(index, availabilityDTO == null ? null : availabilityDTO.getId(), e.getStatusCode().value(), e.getStatusText());
+            }
+        }
+
+        Map<UUID, Availability> availabilities = availabilityRepository.findAllWithPlacesByIdIn(ids).stream()
+                .collect(Collectors.toMap(Availability::getId, Function.identity()));
+        List<Availability> updated = new ArrayList<>();
+        for (int index = 0; index < availabilityDTOs.size(); index++) {
+            if (results[index] != null) {
+                continue;
+            }
+            AvailabilityDTO availabilityDTO = availabilityDTOs.get(index);
+            Availability availability = availabilities.get(availabilityDTO.getId());
+            if (availability == null) {
+                results[index] = new BulkItemResult(index, availabilityDTO.getId(), HttpStatus.NOT_FOUND.value(), "Availability not found");
+                continue;
+            }
+            applyAttributes(availability, availabilityDTO);
+            updated.add(availability);
+            results[index] = new BulkItemResult(index, availability.getId(), HttpStatus.OK.value(), null);
+        }
+
+        availabilityRepository.saveAll(updated);
+        updated.forEach(availability -> eventPublisher.publishEvent(AvailabilityChangedEvent.updated(availability)));
+
+        logger.debug("Updated " + updated.size() + " availabilities");
+        return List.of(results);
+    }
+
+    /**
+     * Delete several availabilities.
+     * The existing availabilities are loaded with a single query, then the deletions are flushed with JDBC batching.
+     *
+     * @param ids Ids of the availabilities to delete.
+     * @return Result of each id, in request order.
+     * @throws HttpClientErrorException If the batch is invalid.
+     */
+    @Transactional
+    public List<BulkItemResult> deleteAvailabilities(List<UUID> ids) throws HttpClientErrorException {
+        logger.info("Deleting availabilities");
+        checkBatchSize(ids);
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            logger.error("Error while deleting availabilities: missing ids");
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Missing ids");
+        }
+
+        Map<UUID, Availability> availabilities = availabilityRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Availability::getId, Function.identity()));
+        List<BulkItemResult> results = new ArrayList<>(ids.size());
+        for (int index = 0; index < ids.size(); index++) {
+            UUID id = ids.get(index);
+            boolean found = availabilities.containsKey(id);
+            results.add(found
+                    ? new BulkItemResult(index, id, HttpStatus.OK.value(), null)
+                    : new BulkItemResult(index, id, HttpStatus.NOT_FOUND.value(), "Availability not found"));
+        }
+
+        availabilityRepository.deleteAll(availabilities.values());
+        availabilities.keySet().forEach(id -> eventPublisher.publishEvent(AvailabilityChangedEvent.deleted(id)));
+
+        logger.debug("Deleted " + availabilities.size() + " availabilities");
+        return results;
+    }
+
+    /**
+     * Check that a batch is present and not too large.
+     *
+     * @param batch Batch to check.
+     * @throws HttpClientErrorException If the batch is missing or too large.
+     */
+    private void checkBatchSize(List<?> batch) throws HttpClientErrorException {
+        if (batch == null || batch.isEmpty()) {
+            logger.error("Error while processing a batch: empty batch");
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Empty batch");
+        }
+        if (batch.size() > maxBatchSize) {
+            logger.error("Error while processing a batch: too many items");
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Too many items, the maximum is " + maxBatchSize);
+        }
+    }
+
+    /**
+     * Copy the attributes of a DTO into an availability.
+     *
+     * @param availability    Availability to fill.
+     * @param availabilityDTO Attributes to copy.
+     */
+    private void applyAttributes(Availability availability, AvailabilityDTO availabilityDTO) {
+        availability.setStartDate(availabilityDTO.getStartDate());
+        availability.setEndDate(availabilityDTO.getEndDate());
+        availability.setJobCategoryId(availabilityDTO.getJobCategoryId());
+        availability.setJobTitle(availabilityDTO.getJobTitle());
+        applyPlaceList(availability, availabilityDTO.getPlaceList());
+    }
+
+    /**
+     * Replace the place list of an availability if it differs.
+     * A modified place list is rewritten entirely, so an identical one is left untouched.
+     * The caller's list is copied, never adopted, since it may be immutable.
+     *
+     * @param availability Availability to update.
+     * @param placeList    New place list.
+     */
+    private void applyPlaceList(Availability availability, List<String> placeList) {
+        List<String> current = availability.getPlaceList();
+        // Compare a copy, a Hibernate bag only equals itself
+        if (current != null && placeList != null && new ArrayList<>(current).equals(placeList)) {
+            return;
+        }
+        if (current == null || placeList == null) {
+            availability.setPlaceList(placeList == null ? null : new ArrayList<>(placeList));
+        } else {
+            // Refill the managed collection instead of swapping it
+            current.clear();
+            current.addAll(placeList);
+        }
+    }
+
     /**
      * Check if the attributes of an availability are valid.
      *
      * @param availability Availability to check.
      * @throws HttpClientErrorException If the availability does not have all the required attributes.
      */
-    private void checkAttributes(AvailabilityDTO availability) throws HttpClientErrorException {
-        if (availability.getStartDate() == null || availability.getEndDate() == null || availability.getJobCategoryId() == null || availability.getJobTitle() == null || availability.getPlaceList() == null) {
+    void checkAttributes(AvailabilityDTO availability) throws HttpClientErrorException {
+        if (availability == null || availability.getStartDate() == null || availability.getEndDate() == null || availability.getJobCategoryId() == null || availability.getJobTitle() == null || availability.getPlaceList() == null) {
             logger.error("Error while creating an availability: missing attributes");
             throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Missing attributes");
         }
@@ -151,10 +914,29 @@ public class AvailabilityService {
             logger.error("Error while creating an availability: place list is empty");
             throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Place list is empty");
         }
-        if (availability.getStartDate().after(availability.getEndDate())) {
+        if (availability.getStartDate().isAfter(availability.getEndDate())) {
             logger.error("Error while creating an availability: start date must be before end date");
             throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Start date must be before end date");
         }
+        if (Duration.between(availability.getStartDate(), availability.getEndDate()).compareTo(maxDuration) > 0) {
+            logger.error("Error while creating an availability: longer than " + maxDuration.toDays() + " days");
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Availability is longer than " + maxDuration.toDays() + " days");
+        }
+    }
+
+    /**
+     * Get the version of an availability, to answer conditional requests before building the response.
+     * The availability is usually served by the second-level cache.
+     *
+     * @param id Availability id.
+     * @return Version of the availability.
+     * @throws HttpClientErrorException If the availability is not found.
+     */
+    public long getAvailabilityVersion(UUID id) throws HttpClientErrorException {
+        return availabilityRepository.findById(id).map(Availability::getVersion).orElseThrow(() -> {
+            logger.error("Error while getting an availability version: availability not found");
+            return new HttpClientErrorException(HttpStatus.NOT_FOUND, "Availability not found");
+        });
     }
 
     /**
@@ -173,16 +955,68 @@ public class AvailabilityService {
             throw new HttpClientErrorException(HttpStatus.NOT_FOUND, "Availability not found");
         }
 
+        JobCategoryDTO jobCategoryById = jobCategoryService.getJobCategoryById(availability.getJobCategoryId(), token);
+        return toDetailedAvailabilityDTO(availability, jobCategoryById);
+    }
+
+    /**
+     * Get detailed availabilities by id.
+     * Availabilities are loaded with a single query and each distinct job category is fetched once, in parallel.
+     *
+     * @param ids   Availability ids.
+     * @param token Token.
+     * @return Detailed availabilities in the order of the ids, the ids not found being skipped.
+     * @throws HttpClientErrorException If the ids are invalid or a job category cannot be fetched.
+     */
+    public List<DetailedAvailabilityDTO> getDetailedAvailabilitiesByIds(List<UUID> ids, String token) throws HttpClientErrorException {
+        logger.info("Getting detailed availabilities");
+
+        if (ids == null || ids.stream().anyMatch(Objects::isNull)) {
+            logger.error("Error while getting detailed availabilities: missing ids");
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Missing ids");
+        }
+        if (ids.size() > maxBatchSize) {
+            logger.error("Error while getting detailed availabilities: too many ids");
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Too many ids, the maximum is " + maxBatchSize);
+        }
+
+        Map<UUID, Availability> availabilities = availabilityRepository.findAllWithPlacesByIdIn(ids).stream()
+                .collect(Collectors.toMap(Availability::getId, Function.identity()));
+        Set<UUID> jobCategoryIds = availabilities.values().stream()
+                .map(Availability::getJobCategoryId)
+                .filter(jobCategoryId -> jobCategoryId != null)
+                .collect(Collectors.toSet());
+        Map<UUID, JobCategoryDTO> jobCategories = jobCategoryService.getJobCategoriesByIds(jobCategoryIds, token);
+
+        List<DetailedAvailabilityDTO> detailedAvailabilities = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            Availability availability = availabilities.get(id);
+            if (availability == null) {
+                logger.warn("Availability with id " + id + " not found");
+                continue;
+            }
+            detailedAvailabilities.add(toDetailedAvailabilityDTO(availability, jobCategories.get(availability.getJobCategoryId())));
+        }
+
+        logger.debug("Returning " + detailedAvailabilities.size() + " detailed availabilities");
+        return detailedAvailabilities;
+    }
+
+    /**
+     * Build a detailed availability from an availability and its job category.
+     *
+     * @param availability Availability.
+     * @param jobCategory  Job category of the availability.
+     * @return Detailed availability.
+     */
+    DetailedAvailabilityDTO toDetailedAvailabilityDTO(Availability availability, JobCategoryDTO jobCategory) {
         DetailedAvailabilityDTO detailedAvailabilityDTO = new DetailedAvailabilityDTO();
         detailedAvailabilityDTO.setId(availability.getId());
         detailedAvailabilityDTO.setJobTitle(availability.getJobTitle());
         detailedAvailabilityDTO.setEndDate(availability.getEndDate());
         detailedAvailabilityDTO.setStartDate(availability.getStartDate());
         detailedAvailabilityDTO.setPlaceList(availability.getPlaceList());
-
-        JobCategoryDTO jobCategoryById = jobCategoryService.getJobCategoryById(availability.getJobCategoryId(), token);
-        detailedAvailabilityDTO.setJobCategory(jobCategoryById);
-
+        detailedAvailabilityDTO.setJobCategory(jobCategory);
         return detailedAvailabilityDTO;
     }
 }
@@ -0,0 +1,15 @@
+package fr.polytech.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+
+/**
+ * Rejection of a call to the job category API by the bulkhead of the client.
+ * It is a local overload, not a failure of the API, so it never counts towards the circuit breaker.
+ */
+public class BulkheadFullException extends HttpServerErrorException {
+
+    public BulkheadFullException() {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Too many concurrent calls to the job category API");
+    }
+}
@@ -0,0 +1,101 @@
+package fr.polytech.service;
+
+import fr.polytech.model.JobCategoryDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.annotation.CircuitBreaker;
+import org.springframework.retry.annotation.Recover;
+import org.springframework.retry.policy.CircuitBreakerRetryPolicy;
+import org.springframework.retry.support.RetrySynchronizationManager;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Calls to the job category API behind a circuit breaker, used by the JobCategoryClient once a bulkhead slot is held.
+ * Every failure of the call counts towards the failure threshold; client errors are returned as a response instead.
+ * Once the circuit is open, the last Job Category received for the id is served instead of calling the API.
+ */
+@Component
+public class JobCategoryCircuitBreaker {
+
+    private final Logger logger = LoggerFactory.getLogger(JobCategoryCircuitBreaker.class);
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Value("${JOB_CATEGORY_API_URI}")
+    private String jobCategoryApiUri;
+
+    /**
+     * Last Job Category received for each id, served while the circuit is open.
+     */
+    private final Map<UUID, JobCategoryDTO> lastKnownJobCategories = new ConcurrentHashMap<>();
+
+    /**
+     * Get a Job Category by id.
+     * Any exception outside the failures of the call would open the circuit at once, so client errors are returned
+     * as a response, and bulkhead rejections are raised by the JobCategoryClient before the circuit is entered.
+     *
+     * @param id      Job Category id
+     * @param headers Headers of the call, access token included
+     * @return Response of the API
+     * @throws RestClientException if the API cannot be reached in time, fails or answers with an unreadable body
+     */
+    @CircuitBreaker(
+            retryFor = RestClientException.class,
+            noRetryFor = {HttpClientErrorException.class, BulkheadFullException.class},
+            maxAttemptsExpression = "${job-category.client.circuit-breaker.failure-threshold:5}",
+            openTimeoutExpression = "${job-category.client.circuit-breaker.failure-window-ms:10000}",
+            resetTimeoutExpression = "${job-category.client.circuit-breaker.reset-timeout-ms:30000}"
+    )
+    public ResponseEntity<JobCategoryDTO> getJobCategory(UUID id, HttpHeaders headers) throws RestClientException {
+        // Templated URI so that the client metrics are not tagged with every id
+        String uri = jobCategoryApiUri + "/{id}";
+        logger.info("Making API call to {}", uri);
+        try {
+            ResponseEntity<JobCategoryDTO> response = restTemplate.exchange(uri, HttpMethod.GET, new HttpEntity<Void>(null, headers), JobCategoryDTO.class, id);
+            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
+                lastKnownJobCategories.put(id, response.getBody());
+            }
+            return response;
+        } catch (HttpClientErrorException e) {
+            return ResponseEntity.status(e.getStatusCode()).build();
+        }
+    }
+
+    /**
+     * Answer with the last Job Category received for the id while the circuit is open.
+     * The circuit breaker recovers every failure, so the failures met while the circuit is still closed are rethrown.
+     *
+     * @param e       Last failure of the API
+     * @param id      Job Category id
+     * @param headers Headers of the call
+     * @return Last Job Category received for the id
+     * @throws RuntimeException the last failure if the circuit is closed or no Job Category was ever received for the id
+     */
+    @Recover
+    public ResponseEntity<JobCategoryDTO> getLastKnownJobCategory(RuntimeException e, UUID id, HttpHeaders headers) throws RuntimeException {
+        RetryContext context = RetrySynchronizationManager.getContext();
+        boolean open = context != null && Boolean.TRUE.equals(context.getAttribute(CircuitBreakerRetryPolicy.CIRCUIT_OPEN));
+        JobCategoryDTO jobCategory = open ? lastKnownJobCategories.get(id) : null;
+        if (jobCategory == null) {
+            throw e;
+        }
+        logger.warn("Job category API unavailable, serving last known job category {}: {}", id, e.getMessage());
+        return ResponseEntity.ok(jobCategory);
+    }
+}
@@ -0,0 +1,144 @@
+package fr.polytech.service;
+
+import fr.polytech.model.JobCategoryDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.http.Outcome;
+import org.springframework.http.*;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP client of the job category API.
+ * Calls are bounded by the RestTemplate timeouts and by a bulkhead limiting the concurrent calls.
+ * The bulkhead is taken before the JobCategoryCircuitBreaker is entered, so that a local overload never opens the circuit;
+ * timeouts, server errors and unreadable responses count towards it.
+ */
+@Component
+public class JobCategoryClient {
+
+    private final Logger logger = LoggerFactory.getLogger(JobCategoryClient.class);
+
+    /**
+     * Prefer the compact CBOR encoding, JSON remains acceptable for peers that do not support it.
+     */
+    private static final List<MediaType> ACCEPTED_MEDIA_TYPES = List.of(MediaType.APPLICATION_CBOR, MediaType.parseMediaType("application/json;q=0.9"));
+
+    @Autowired
+    private JobCategoryCircuitBreaker jobCategoryCircuitBreaker;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${job-category.client.bulkhead.max-concurrent-calls:50}")
+    private int bulkheadMaxConcurrentCalls;
+
+    @Value("${job-category.client.bulkhead.max-wait:500ms}")
+    private Duration bulkheadMaxWait;
+
+    /**
+     * Limits the number of concurrent calls to the API.
+     */
+    private Semaphore bulkhead;
+
+    /**
+     * Create the bulkhead.
+     */
+    @PostConstruct
+    public void initBulkhead() {
+        bulkhead = new Semaphore(bulkheadMaxConcurrentCalls);
+    }
+
+    /**
+     * Get a Job Category by id.
+     * Client errors are returned as a response instead of being thrown, so that they never open the circuit.
+     * The call is timed, bulkhead wait included, and tagged by outcome.
+     *
+     * @param id    Job Category id
+     * @param token String - Access token of the caller
+     * @return Response of the API, or the last Job Category received for the id while the circuit is open
+     * @throws BulkheadFullException if no bulkhead slot frees up in time
+     * @throws RestClientException   if the API cannot be reached in time, fails or answers with an unreadable body
+     */
+    public ResponseEntity<JobCategoryDTO> getJobCategory(UUID id, String token) throws BulkheadFullException, RestClientException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Outcome outcome = Outcome.UNKNOWN;
+        String exception = "none";
+        try {
+            HttpHeaders headers = createHeaders(token);
+            acquireBulkhead();
+            try {
+                ResponseEntity<JobCategoryDTO> response = jobCategoryCircuitBreaker.getJobCategory(id, headers);
+                outcome = Outcome.forStatus(response.getStatusCode().value());
+                return response;
+            } finally {
+                bulkhead.release();
+            }
+        } catch (HttpClientErrorException e) {
+            outcome = Outcome.CLIENT_ERROR;
+            return ResponseEntity.status(e.getStatusCode()).build();
+        } catch (RuntimeException e) {
+            if (e instanceof HttpServerErrorException) {
+                outcome = Outcome.SERVER_ERROR;
+            }
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("job.category.api.calls")
+                    .description("Calls to the job category API")
+                    .tag("method", HttpMethod.GET.name())
+                    .tag("outcome", outcome.name())
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Wait for a free slot in the bulkhead.
+     *
+     * @throws BulkheadFullException if no slot frees up in time
+     */
+    private void acquireBulkhead() throws BulkheadFullException {
+        boolean acquired;
+        try {
+            acquired = bulkhead.tryAcquire(bulkheadMaxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            logger.error("Error while calling the job category API: too many concurrent calls");
+            throw new BulkheadFullException();
+        }
+    }
+
+    /**
+     * Create headers for API calls.
+     *
+     * @param token String - Access token from the user who adds the review
+     * @return HttpHeaders
+     * @throws HttpClientErrorException if the token is not valid
+     */
+    private HttpHeaders createHeaders(String token) throws HttpClientErrorException {
+        if (token == null || !token.startsWith("Bearer ")) {
+            throw new HttpClientErrorException(HttpStatus.UNAUTHORIZED);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token.replace("Bearer ", ""));
+        headers.setAccept(ACCEPTED_MEDIA_TYPES);
+        return headers;
+    }
+}
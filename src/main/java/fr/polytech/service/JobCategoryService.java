@@ -1,15 +1,33 @@
 package fr.polytech.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import fr.polytech.model.JobCategoryDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Service
 public class JobCategoryService {
@@ -17,53 +35,210 @@ public class JobCategoryService {
     private final Logger logger = LoggerFactory.getLogger(JobCategoryService.class);
 
     @Autowired
-    private RestTemplate restTemplate;
+    private JobCategoryClient jobCategoryClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${job-category.cache.maximum-size:200}")
+    private long cacheMaximumSize;
+
+    @Value("${job-category.cache.expire-after-write:1h}")
+    private Duration cacheExpireAfterWrite;
+
+    @Value("${job-category.cache.refresh-after-write:10m}")
+    private Duration cacheRefreshAfterWrite;
+
+    @Value("${job-category.executor.pool-size:16}")
+    private int executorPoolSize;
+
+    @Value("${availability.virtual-threads.enabled:false}")
+    private boolean virtualThreads;
+
+    /**
+     * Executor of the parallel and background calls to the job category API.
+     */
+    private ExecutorService executor;
+
+    /**
+     * Job categories by id, with the time they were fetched at.
+     */
+    private Cache<UUID, CachedJobCategory> cache;
+
+    /**
+     * Ids of the job categories being refreshed in the background.
+     */
+    private final Set<UUID> refreshing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Calls to the job category API in progress for the cache misses, by job category id.
+     */
+    private final ConcurrentHashMap<UUID, CompletableFuture<JobCategoryDTO>> inFlight = new ConcurrentHashMap<>();
+
+    private record CachedJobCategory(JobCategoryDTO jobCategory, long fetchedAt) {
+    }
+
+    /**
+     * Build the job category cache and expose its statistics.
+     */
+    @PostConstruct
+    public void initCache() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfterWrite(cacheExpireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jobCategory");
+        executor = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("job-category-", 0).factory())
+                : Executors.newFixedThreadPool(executorPoolSize, new CustomizableThreadFactory("job-category-"));
+    }
+
+    /**
+     * Stop the executor of the job category API calls.
+     */
+    @PreDestroy
+    public void shutdownExecutor() {
+        executor.shutdown();
+    }
+
+    /**
+     * Get several Job Categories by id, fetching the ones missing from the cache in parallel.
+     *
+     * @param ids   Job Category ids
+     * @param token String - Access token of the caller
+     * @return Job Categories by id
+     * @throws HttpClientErrorException if an error occurs while calling the API
+     */
+    public Map<UUID, JobCategoryDTO> getJobCategoriesByIds(Collection<UUID> ids, String token) throws HttpClientErrorException {
+        Map<UUID, JobCategoryDTO> jobCategories = new HashMap<>();
+        Map<UUID, CompletableFuture<JobCategoryDTO>> futures = new HashMap<>();
+        for (UUID id : ids) {
+            if (jobCategories.containsKey(id) || futures.containsKey(id)) {
+                continue;
+            }
+            // Cache hits are served on the caller's thread, only the misses go to the executor
+            JobCategoryDTO cached = getCachedJobCategory(id, token);
+            if (cached != null) {
+                jobCategories.put(id, cached);
+            } else {
+                futures.put(id, CompletableFuture.supplyAsync(() -> getJobCategoryById(id, token), executor));
+            }
+        }
+
+        futures.forEach((id, future) -> jobCategories.put(id, join(future)));
+        return jobCategories;
+    }
 
     /**
      * Get a Job Category by id.
+     * Job categories are served from the cache. Once an entry is older than the refresh delay,
+     * it is still served while a background call fetches a fresh copy with the caller's token.
+     * Concurrent misses on the same id share a single call, made with the token of the first caller,
+     * and all get its result or its error.
      */
     public JobCategoryDTO getJobCategoryById(UUID id, String token) throws HttpClientErrorException {
-        String uri = System.getenv("JOB_CATEGORY_API_URI") + "/" + id;
-        return makeApiCall(uri, HttpMethod.GET, JobCategoryDTO.class, token);
+        JobCategoryDTO cachedJobCategory = getCachedJobCategory(id, token);
+        if (cachedJobCategory != null) {
+            return cachedJobCategory;
+        }
+
+        CompletableFuture<JobCategoryDTO> call = new CompletableFuture<>();
+        CompletableFuture<JobCategoryDTO> running = inFlight.putIfAbsent(id, call);
+        if (running != null) {
+            return join(running);
+        }
+
+        try {
+            // A call may have completed between the cache miss and the registration of this one,
+            // looked up through the map view so that the miss is not counted twice in the cache statistics
+            CachedJobCategory cached = cache.asMap().get(id);
+            JobCategoryDTO jobCategory = cached != null ? cached.jobCategory() : fetchJobCategory(id, token);
+            if (cached == null) {
+                cache.put(id, new CachedJobCategory(jobCategory, System.nanoTime()));
+            }
+            call.complete(jobCategory);
+            return jobCategory;
+        } catch (Throwable e) {
+            // Any failure, errors included, must reach the callers waiting on the call
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            // Removed after the cache is filled, so that a later caller finds either the call or the cached result
+            inFlight.remove(id, call);
+        }
     }
 
     /**
-     * Make an API call.
+     * Get a Job Category from the cache, starting a background refresh once the entry is older than the refresh delay.
      *
-     * @param uri          URI of the API
-     * @param method       HTTP method
-     * @param responseType Class of the response
-     * @param token        String - Access token from the user who adds the review
-     * @param <T>          Type of the response
-     * @return Response
+     * @param id    Job Category id
+     * @param token String - Access token of the caller, used by the refresh
+     * @return Cached Job Category, null if the id is not cached
+     */
+    private JobCategoryDTO getCachedJobCategory(UUID id, String token) {
+        CachedJobCategory cached = cache.getIfPresent(id);
+        if (cached == null) {
+            return null;
+        }
+        if (System.nanoTime() - cached.fetchedAt() > cacheRefreshAfterWrite.toNanos() && refreshing.add(id)) {
+            executor.execute(() -> refreshJobCategory(id, token));
+        }
+        return cached.jobCategory();
+    }
+
+    /**
+     * Wait for a Job Category call, rethrowing its error as is.
+     *
+     * @param future Job Category call
+     * @return JobCategoryDTO
      * @throws HttpClientErrorException if an error occurs while calling the API
      */
-    private <T> T makeApiCall(String uri, HttpMethod method, Class<T> responseType, String token) throws HttpClientErrorException {
-        logger.info("Making API call to {}", uri);
-        HttpHeaders headers = createHeaders(token);
-        HttpEntity<Void> entity = new HttpEntity<>(null, headers);
-        ResponseEntity<T> response = restTemplate.exchange(uri, method, entity, responseType);
-        if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-            return response.getBody();
-        } else {
-            throw new HttpClientErrorException(response.getStatusCode());
+    private static JobCategoryDTO join(CompletableFuture<JobCategoryDTO> future) throws HttpClientErrorException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
         }
     }
 
     /**
-     * Create headers for API calls.
+     * Replace a cached Job Category with a fresh copy, keeping the cached one if the call fails.
      *
-     * @param token String - Access token from the user who adds the review
-     * @return HttpHeaders
-     * @throws HttpClientErrorException if the token is not valid
+     * @param id    Job Category id
+     * @param token String - Access token of the caller
      */
-    private HttpHeaders createHeaders(String token) throws HttpClientErrorException {
-        if (token == null || !token.startsWith("Bearer ")) {
-            throw new HttpClientErrorException(HttpStatus.UNAUTHORIZED);
+    private void refreshJobCategory(UUID id, String token) {
+        try {
+            cache.put(id, new CachedJobCategory(fetchJobCategory(id, token), System.nanoTime()));
+            logger.debug("Refreshed job category {}", id);
+        } catch (RuntimeException e) {
+            logger.warn("Error while refreshing job category {}: {}", id, e.getMessage());
+        } finally {
+            refreshing.remove(id);
         }
-        HttpHeaders headers = new HttpHeaders();
-        headers.setBearerAuth(token.replace("Bearer ", ""));
-        return headers;
     }
 
+    /**
+     * Fetch a Job Category from the job category API.
+     *
+     * @param id    Job Category id
+     * @param token String - Access token of the caller
+     * @return JobCategoryDTO
+     * @throws HttpClientErrorException if an error occurs while calling the API
+     */
+    private JobCategoryDTO fetchJobCategory(UUID id, String token) throws HttpClientErrorException {
+        ResponseEntity<JobCategoryDTO> response = jobCategoryClient.getJobCategory(id, token);
+        if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
+            return response.getBody();
+        } else {
+            throw new HttpClientErrorException(response.getStatusCode());
+        }
+    }
 }
@@ -0,0 +1,35 @@
+-- Schema as created by Hibernate before the migrations took over, a no-op on existing databases
+
+CREATE TABLE IF NOT EXISTS public.availability
+(
+    id              uuid         NOT NULL PRIMARY KEY,
+    job_title       varchar(255),
+    job_category_id uuid,
+    start_date      timestamp(6),
+    end_date        timestamp(6)
+);
+
+CREATE INDEX IF NOT EXISTS idx_availability_start_date_id ON public.availability (start_date, id);
+CREATE INDEX IF NOT EXISTS idx_availability_job_category_start_date_id ON public.availability (job_category_id, start_date, id);
+
+CREATE TABLE IF NOT EXISTS public.availability_place_list
+(
+    availability_id uuid NOT NULL REFERENCES public.availability (id),
+    place_list      varchar(255)
+);
+
+CREATE INDEX IF NOT EXISTS idx_availability_place_list_place ON public.availability_place_list (place_list, availability_id);
+
+CREATE SEQUENCE IF NOT EXISTS public.availability_outbox_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS public.availability_outbox
+(
+    id           bigint       NOT NULL PRIMARY KEY,
+    aggregate_id uuid         NOT NULL,
+    type         varchar(16)  NOT NULL,
+    payload      text         NOT NULL,
+    created_at   timestamp(6) NOT NULL,
+    published_at timestamp(6)
+);
+
+CREATE INDEX IF NOT EXISTS idx_availability_outbox_published_at_id ON public.availability_outbox (published_at, id);
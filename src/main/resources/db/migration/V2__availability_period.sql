@@ -0,0 +1,17 @@
+-- Dates are instants now, the existing values were written in UTC
+ALTER TABLE public.availability
+    ALTER COLUMN start_date TYPE timestamp(6) with time zone USING start_date AT TIME ZONE 'UTC',
+    ALTER COLUMN end_date TYPE timestamp(6) with time zone USING end_date AT TIME ZONE 'UTC';
+
+ALTER TABLE public.availability_outbox
+    ALTER COLUMN created_at TYPE timestamp(6) with time zone USING created_at AT TIME ZONE 'UTC',
+    ALTER COLUMN published_at TYPE timestamp(6) with time zone USING published_at AT TIME ZONE 'UTC';
+
+-- Inclusive period of the availability, computed by the database so it can never drift from the dates.
+-- Null when a bound is missing or the bounds are reversed, such rows never match a period lookup.
+ALTER TABLE public.availability
+    ADD COLUMN IF NOT EXISTS period tstzrange
+        GENERATED ALWAYS AS (CASE WHEN start_date <= end_date THEN tstzrange(start_date, end_date, '[]') END) STORED;
+
+-- Serves the overlap (&&) and containment (@>) lookups of the filter endpoint
+CREATE INDEX IF NOT EXISTS idx_availability_period ON public.availability USING gist (period);
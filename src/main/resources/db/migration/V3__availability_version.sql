@@ -0,0 +1,3 @@
+-- Optimistic locking version of the availabilities, also added to the databases baselined before the migrations
+ALTER TABLE public.availability
+    ADD COLUMN IF NOT EXISTS version bigint DEFAULT 0 NOT NULL;
@@ -0,0 +1,4 @@
+-- Failed publications of the outbox events, an event being dead-lettered after too many of them
+ALTER TABLE public.availability_outbox
+    ADD COLUMN IF NOT EXISTS attempts integer DEFAULT 0 NOT NULL,
+    ADD COLUMN IF NOT EXISTS dead_lettered_at timestamp(6) with time zone;
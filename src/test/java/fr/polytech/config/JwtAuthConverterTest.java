@@ -0,0 +1,66 @@
+package fr.polytech.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtAuthConverterTest {
+
+    private static final String RESOURCE_ID = "availability-api";
+
+    private final JwtAuthConverter jwtAuthConverter = new JwtAuthConverter("sub", RESOURCE_ID);
+
+    /**
+     * Test that a replayed token reuses the cached authorities.
+     */
+    @Test
+    public void testConvertReusesCachedAuthorities() {
+        String jti = UUID.randomUUID().toString();
+        AbstractAuthenticationToken first = jwtAuthConverter.convert(createJwt(jti, Instant.now().plusSeconds(3600), List.of("client_candidate")));
+        AbstractAuthenticationToken second = jwtAuthConverter.convert(createJwt(jti, Instant.now().plusSeconds(3600), List.of("client_candidate")));
+
+        assertTrue(first.getAuthorities().stream().map(GrantedAuthority::getAuthority).anyMatch("ROLE_client_candidate"::equals));
+        assertTrue(first.getAuthorities().stream().map(GrantedAuthority::getAuthority).anyMatch("SCOPE_profile"::equals));
+        assertEquals("subject", first.getName());
+        // Same interned instances
+        for (GrantedAuthority authority : first.getAuthorities()) {
+            assertTrue(second.getAuthorities().stream().anyMatch(other -> other == authority));
+        }
+    }
+
+    /**
+     * Test that the authorities of an expired token are not served from the cache.
+     */
+    @Test
+    public void testConvertDoesNotReuseExpiredAuthorities() {
+        String jti = UUID.randomUUID().toString();
+        jwtAuthConverter.convert(createJwt(jti, Instant.now().minusSeconds(1), List.of("client_candidate")));
+        AbstractAuthenticationToken converted = jwtAuthConverter.convert(createJwt(jti, Instant.now().plusSeconds(3600), List.of("client_recruiter")));
+
+        assertTrue(converted.getAuthorities().stream().map(GrantedAuthority::getAuthority).anyMatch("ROLE_client_recruiter"::equals));
+        assertFalse(converted.getAuthorities().stream().map(GrantedAuthority::getAuthority).anyMatch("ROLE_client_candidate"::equals));
+    }
+
+    private Jwt createJwt(String jti, Instant expiresAt, List<String> roles) {
+        Map<String, Object> resourceAccess = new HashMap<>();
+        resourceAccess.put(RESOURCE_ID, Map.of("roles", roles));
+        return Jwt.withTokenValue("token-" + UUID.randomUUID())
+                .header("alg", "RS256")
+                .jti(jti)
+                .subject("subject")
+                .claim("scope", "openid profile")
+                .claim("resource_access", resourceAccess)
+                .issuedAt(expiresAt.minusSeconds(7200))
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
@@ -0,0 +1,139 @@
+package fr.polytech.index;
+
+import fr.polytech.event.AvailabilityChangedEvent;
+import fr.polytech.model.Availability;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReloadableIndexTest {
+
+    /**
+     * Index of the availability ids, whose snapshot read lets a write go through before returning a stale table.
+     */
+    private static class IdIndex extends ReloadableIndex {
+
+        private final Set<UUID> ids = new HashSet<>();
+
+        private List<Availability> table = List.of();
+
+        private Runnable duringRead = () -> {
+        };
+
+        @Override
+        protected List<Availability> readSnapshot() {
+            List<Availability> snapshot = table;
+            duringRead.run();
+            return snapshot;
+        }
+
+        @Override
+        protected void clear() {
+            ids.clear();
+        }
+
+        @Override
+        protected void add(Availability availability) {
+            ids.add(availability.getId());
+        }
+
+        @Override
+        protected void apply(AvailabilityChangedEvent event) {
+            ids.remove(event.getId());
+            if (event.getType() != AvailabilityChangedEvent.Type.DELETED) {
+                ids.add(event.getId());
+            }
+        }
+    }
+
+    /**
+     * Test that the writes received while the table is read are kept once the snapshot replaces the content.
+     */
+    @Test
+    public void testReloadKeepsWritesReceivedDuringTheRead() {
+        IdIndex index = new IdIndex();
+        Availability kept = availability();
+        Availability created = availability();
+        Availability deleted = availability();
+        index.table = List.of(kept, deleted);
+        index.duringRead = () -> {
+            index.onAvailabilityChanged(AvailabilityChangedEvent.created(created));
+            index.onAvailabilityChanged(AvailabilityChangedEvent.deleted(deleted.getId()));
+        };
+
+        assertFalse(index.isLoaded());
+        index.reload();
+
+        assertTrue(index.isLoaded());
+        assertEquals(Set.of(kept.getId(), created.getId()), index.ids);
+    }
+
+    /**
+     * Test that a failed read leaves the content as it was and stops recording the writes.
+     */
+    @Test
+    public void testReloadFailure() {
+        IdIndex index = new IdIndex();
+        Availability availability = availability();
+        index.table = List.of(availability);
+        index.reload();
+        index.duringRead = () -> {
+            throw new IllegalStateException("Database unavailable");
+        };
+
+        assertThrows(IllegalStateException.class, index::reload);
+
+        assertEquals(Set.of(availability.getId()), index.ids);
+        index.duringRead = () -> {
+        };
+        index.table = List.of();
+        index.reload();
+        assertTrue(index.ids.isEmpty());
+    }
+
+    /**
+     * Test that several structures are reloaded from a single read, each keeping the writes received during it.
+     */
+    @Test
+    public void testSharedReload() {
+        IdIndex first = new IdIndex();
+        IdIndex second = new IdIndex();
+        Availability kept = availability();
+        Availability created = availability();
+        AtomicInteger reads = new AtomicInteger();
+
+        ReloadableIndex.reload(List.of(first, second), () -> {
+            reads.incrementAndGet();
+            first.onAvailabilityChanged(AvailabilityChangedEvent.created(created));
+            return List.of(kept);
+        });
+
+        assertEquals(1, reads.get());
+        assertTrue(first.isLoaded());
+        assertTrue(second.isLoaded());
+        assertEquals(Set.of(kept.getId(), created.getId()), first.ids);
+        assertEquals(Set.of(kept.getId()), second.ids);
+
+        assertThrows(IllegalStateException.class, () -> ReloadableIndex.reload(List.of(first, second), () -> {
+            throw new IllegalStateException("Database unavailable");
+        }));
+        assertEquals(Set.of(kept.getId()), second.ids);
+        second.reload();
+        assertTrue(second.ids.isEmpty());
+    }
+
+    private static Availability availability() {
+        Availability availability = new Availability();
+        availability.setId(UUID.randomUUID());
+        availability.setStartDate(Instant.now());
+        availability.setEndDate(Instant.now());
+        return availability;
+    }
+}
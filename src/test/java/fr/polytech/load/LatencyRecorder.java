@@ -0,0 +1,78 @@
+package fr.polytech.load;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Thread-safe recorder of request latencies, summarized as throughput and percentiles.
+ */
+public class LatencyRecorder {
+
+    private long[] latencies = new long[1024];
+
+    private int count;
+
+    private int errors;
+
+    /**
+     * Record a successful request.
+     *
+     * @param nanos Latency of the request.
+     */
+    public synchronized void record(long nanos) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = nanos;
+    }
+
+    /**
+     * Record a failed request.
+     */
+    public synchronized void recordError() {
+        errors++;
+    }
+
+    /**
+     * Summarize the recorded requests.
+     *
+     * @param elapsed Duration over which the requests were recorded.
+     * @return Summary
+     */
+    public synchronized Summary summarize(Duration elapsed) {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return new Summary(
+                count,
+                errors,
+                count / (elapsed.toNanos() / 1e9),
+                percentile(sorted, 0.50),
+                percentile(sorted, 0.95),
+                percentile(sorted, 0.99),
+                count == 0 ? 0 : sorted[count - 1] / 1e6
+        );
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    public record Summary(long count, long errors, double throughput, double p50Millis, double p95Millis, double p99Millis, double maxMillis) {
+
+        /**
+         * Format the summary as one report line.
+         *
+         * @param name Name of the measured scenario.
+         * @return Report line.
+         */
+        public String format(String name) {
+            return String.format(Locale.ROOT, "%-24s requests=%d errors=%d throughput=%.1f/s p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms",
+                    name, count, errors, throughput, p50Millis, p95Millis, p99Millis, maxMillis);
+        }
+    }
+}
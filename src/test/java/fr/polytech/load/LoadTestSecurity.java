@@ -0,0 +1,24 @@
+package fr.polytech.load;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Instant;
+
+/**
+ * Extra configuration source for the load tests, accepting any bearer token so that no issuer is needed.
+ * It is deliberately not a @Configuration so that component scanning never picks it up.
+ */
+public class LoadTestSecurity {
+
+    @Bean
+    public JwtDecoder jwtDecoder() {
+        return token -> Jwt.withTokenValue(token)
+                .header("alg", "none")
+                .subject("load-test")
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .build();
+    }
+}
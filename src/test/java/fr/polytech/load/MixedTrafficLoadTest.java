@@ -0,0 +1,220 @@
+package fr.polytech.load;
+
+import fr.polytech.App;
+import fr.polytech.model.AvailabilityDTO;
+import fr.polytech.service.AvailabilityService;
+import fr.polytech.stub.StubIdentityProvider;
+import fr.polytech.stub.StubJobCategoryServer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Drive a configurable mix of create, read, detailed read and list requests at a target rate
+ * against the application booted on H2, with local stubs for the job category API and the identity provider,
+ * so it runs on a machine without network.
+ * Requests are sent on a fixed schedule whatever the response times, and each latency is measured from the
+ * scheduled send time, so a slow server shows up in the percentiles instead of lowering the offered load.
+ * Run with: mvn test -Pload-test -Dtest=MixedTrafficLoadTest -Dload.rate=500 -Dload.mix=create=10,read=40,detailed=40,list=10
+ */
+@Tag("load")
+public class MixedTrafficLoadTest {
+
+    private static final int RATE = Integer.getInteger("load.rate", 200);
+
+    private static final String MIX = System.getProperty("load.mix", "create=10,read=40,detailed=40,list=10");
+
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("load.warmup-seconds", 5));
+
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("load.duration-seconds", 30));
+
+    private static final Duration DOWNSTREAM_LATENCY = Duration.ofMillis(Long.getLong("load.downstream-latency-millis", 20));
+
+    private static final int AVAILABILITIES = Integer.getInteger("load.availabilities", 1000);
+
+    private static final Path REPORT = Path.of(System.getProperty("load.report", "target/load-test/mixed-traffic.txt"));
+
+    private static final String RESOURCE_ID = "availability-api";
+
+    private enum Operation {
+        CREATE, READ, DETAILED, LIST
+    }
+
+    /**
+     * Run the configured traffic mix and write throughput and latency percentiles per operation to the report file.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testMixedTraffic() throws Exception {
+        List<Operation> schedule = parseMix(MIX);
+
+        try (StubJobCategoryServer jobCategoryStub = new StubJobCategoryServer();
+             StubIdentityProvider identityProvider = new StubIdentityProvider();
+             ConfigurableApplicationContext context = new SpringApplicationBuilder(App.class)
+                     .profiles("test")
+                     .run(
+                             "--server.port=0",
+                             "--eureka.client.enabled=false",
+                             "--spring.cloud.config.enabled=false",
+                             "--spring.security.oauth2.resourceserver.jwt.issuer-uri=" + identityProvider.getIssuerUri(),
+                             "--spring.security.oauth2.resourceserver.jwt.jwk-set-uri=" + identityProvider.getJwkSetUri(),
+                             "--RESOURCE_ID=" + RESOURCE_ID,
+                             "--PRINCIPLE_ATTRIBUTE_NAME=preferred_username",
+                             "--JOB_CATEGORY_API_URI=http://job-category-api" + StubJobCategoryServer.PATH,
+                             "--spring.cloud.discovery.client.simple.instances.job-category-api[0].uri=" + jobCategoryStub.getBaseUrl()
+                     )) {
+            jobCategoryStub.setLatency(DOWNSTREAM_LATENCY);
+            List<UUID> ids = seed(context.getBean(AvailabilityService.class));
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/v1/availability";
+            String token = identityProvider.issueToken("load-test", RESOURCE_ID, List.of("client_candidate", "client_admin"), WARMUP.plus(DURATION).plusMinutes(5));
+
+            drive(baseUrl, token, ids, schedule, WARMUP, newRecorders());
+            Map<Operation, LatencyRecorder> recorders = newRecorders();
+            LatencyRecorder total = drive(baseUrl, token, ids, schedule, DURATION, recorders);
+
+            StringBuilder report = new StringBuilder(String.format(Locale.ROOT, "rate=%d/s mix=%s duration=%ds downstreamLatency=%dms availabilities=%d%n",
+                    RATE, MIX, DURATION.toSeconds(), DOWNSTREAM_LATENCY.toMillis(), AVAILABILITIES));
+            long errors = 0;
+            for (Map.Entry<Operation, LatencyRecorder> entry : recorders.entrySet()) {
+                LatencyRecorder.Summary summary = entry.getValue().summarize(DURATION);
+                report.append(summary.format(entry.getKey().name().toLowerCase(Locale.ROOT))).append(System.lineSeparator());
+                errors += summary.errors();
+            }
+            report.append(total.summarize(DURATION).format("total")).append(System.lineSeparator());
+
+            Files.createDirectories(REPORT.toAbsolutePath().getParent());
+            Files.writeString(REPORT, report);
+            System.out.print(report);
+
+            assertEquals(0, errors);
+        }
+    }
+
+    /**
+     * Expand a mix such as create=10,read=40,detailed=40,list=10 into a shuffled schedule of operations.
+     *
+     * @param mix Weight of each operation.
+     * @return Operations in sending order, cycled over.
+     */
+    private static List<Operation> parseMix(String mix) {
+        List<Operation> schedule = new ArrayList<>();
+        for (String part : mix.split(",")) {
+            String[] weight = part.trim().split("=");
+            Operation operation = Operation.valueOf(weight[0].trim().toUpperCase(Locale.ROOT));
+            schedule.addAll(Collections.nCopies(Integer.parseInt(weight[1].trim()), operation));
+        }
+        if (schedule.isEmpty()) {
+            throw new IllegalArgumentException("Empty load mix: " + mix);
+        }
+        // Fixed seed so that every run sends the same sequence
+        Collections.shuffle(schedule, new Random(42));
+        return schedule;
+    }
+
+    private static Map<Operation, LatencyRecorder> newRecorders() {
+        Map<Operation, LatencyRecorder> recorders = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new LatencyRecorder());
+        }
+        return recorders;
+    }
+
+    private List<UUID> seed(AvailabilityService availabilityService) {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < AVAILABILITIES; i++) {
+            AvailabilityDTO availability = new AvailabilityDTO();
+            availability.setJobCategoryId(UUID.randomUUID());
+            availability.setJobTitle("jobTitle");
+            availability.setPlaceList(List.of("place1"));
+            availability.setStartDate(Instant.now());
+            availability.setEndDate(Instant.now().plus(Duration.ofDays(30)));
+            ids.add(availabilityService.createAvailability(availability).getId());
+        }
+        return ids;
+    }
+
+    private LatencyRecorder drive(String baseUrl, String token, List<UUID> ids, List<Operation> schedule, Duration duration, Map<Operation, LatencyRecorder> recorders) {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        LatencyRecorder total = new LatencyRecorder();
+        long interval = TimeUnit.SECONDS.toNanos(1) / RATE;
+        long start = System.nanoTime();
+        long requests = duration.toNanos() / interval;
+
+        try (ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < requests; i++) {
+                long scheduled = start + i * interval;
+                long wait;
+                while ((wait = scheduled - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Operation operation = schedule.get((int) (i % schedule.size()));
+                HttpRequest request = createRequest(baseUrl, token, operation, ids.get((int) (i % ids.size())));
+                senders.submit(() -> {
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() / 100 == 2) {
+                            long latency = System.nanoTime() - scheduled;
+                            recorders.get(operation).record(latency);
+                            total.record(latency);
+                        } else {
+                            recorders.get(operation).recordError();
+                            total.recordError();
+                        }
+                    } catch (IOException e) {
+                        recorders.get(operation).recordError();
+                        total.recordError();
+                    }
+                    return null;
+                });
+            }
+        }
+        return total;
+    }
+
+    private static HttpRequest createRequest(String baseUrl, String token, Operation operation, UUID id) {
+        HttpRequest.Builder builder = switch (operation) {
+            case CREATE -> HttpRequest.newBuilder(URI.create(baseUrl + "/"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(createBody()));
+            case READ -> HttpRequest.newBuilder(URI.create(baseUrl + "/" + id)).GET();
+            case DETAILED -> HttpRequest.newBuilder(URI.create(baseUrl + "/detailed/" + id)).GET();
+            case LIST -> HttpRequest.newBuilder(URI.create(baseUrl + "/page?size=50")).GET();
+        };
+        return builder.header("Authorization", "Bearer " + token).build();
+    }
+
+    private static String createBody() {
+        Instant start = Instant.now();
+        return "{\"jobTitle\":\"load-test\",\"jobCategoryId\":\"" + UUID.randomUUID()
+                + "\",\"startDate\":\"" + start + "\",\"endDate\":\"" + start.plus(Duration.ofDays(30))
+                + "\",\"placeList\":[\"Nantes\",\"Rennes\"]}";
+    }
+}
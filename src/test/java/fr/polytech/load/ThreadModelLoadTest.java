@@ -0,0 +1,149 @@
+package fr.polytech.load;
+
+import fr.polytech.App;
+import fr.polytech.model.AvailabilityDTO;
+import fr.polytech.service.AvailabilityService;
+import fr.polytech.stub.StubJobCategoryServer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compare the platform-thread pool with virtual threads on the detailed availability read,
+ * whose time is mostly spent waiting on the job category API.
+ * Run with: mvn test -Pload-test -Dtest=ThreadModelLoadTest
+ */
+@Tag("load")
+public class ThreadModelLoadTest {
+
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 400);
+
+    private static final int PLATFORM_THREADS = Integer.getInteger("load.platform-threads", 200);
+
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("load.warmup-seconds", 5));
+
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("load.duration-seconds", 20));
+
+    private static final Duration DOWNSTREAM_LATENCY = Duration.ofMillis(Long.getLong("load.downstream-latency-millis", 50));
+
+    private static final int AVAILABILITIES = 100;
+
+    /**
+     * Run the same load against both thread models and report throughput and latency percentiles.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testCompareThreadModels() throws Exception {
+        try (StubJobCategoryServer stub = new StubJobCategoryServer()) {
+            stub.setLatency(DOWNSTREAM_LATENCY);
+
+            LatencyRecorder.Summary platform = run(stub, false);
+            LatencyRecorder.Summary virtual = run(stub, true);
+
+            String report = String.format("concurrency=%d platformThreads=%d bulkheadMaxConcurrentCalls=%d downstreamLatency=%dms duration=%ds%n%s%n%s%n",
+                    CONCURRENCY, PLATFORM_THREADS, CONCURRENCY, DOWNSTREAM_LATENCY.toMillis(), DURATION.toSeconds(),
+                    platform.format("platform threads"), virtual.format("virtual threads"));
+            Path reportFile = Path.of("target", "load-test", "thread-model.txt");
+            Files.createDirectories(reportFile.getParent());
+            Files.writeString(reportFile, report);
+            System.out.print(report);
+
+            assertEquals(0, platform.errors());
+            assertEquals(0, virtual.errors());
+        }
+    }
+
+    private LatencyRecorder.Summary run(StubJobCategoryServer stub, boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(App.class, LoadTestSecurity.class)
+                .profiles("test")
+                .run(
+                        "--server.port=0",
+                        "--availability.virtual-threads.enabled=" + virtualThreads,
+                        "--server.tomcat.threads.max=" + PLATFORM_THREADS,
+                        // Every read must reach the job category API
+                        "--job-category.cache.maximum-size=0",
+                        // The bulkhead admits every concurrent caller, so that the thread models are compared and not the bulkhead
+                        "--job-category.client.bulkhead.max-concurrent-calls=" + CONCURRENCY,
+                        "--job-category.client.bulkhead.max-wait=" + DURATION.toMillis() + "ms",
+                        "--eureka.client.enabled=false",
+                        "--spring.cloud.config.enabled=false",
+                        "--JOB_CATEGORY_API_URI=http://job-category-api" + StubJobCategoryServer.PATH,
+                        "--spring.cloud.discovery.client.simple.instances.job-category-api[0].uri=" + stub.getBaseUrl()
+                )) {
+            List<UUID> ids = seed(context.getBean(AvailabilityService.class));
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/v1/availability/detailed/";
+
+            drive(baseUrl, ids, WARMUP, new LatencyRecorder());
+            LatencyRecorder recorder = new LatencyRecorder();
+            drive(baseUrl, ids, DURATION, recorder);
+            return recorder.summarize(DURATION);
+        }
+    }
+
+    private List<UUID> seed(AvailabilityService availabilityService) {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < AVAILABILITIES; i++) {
+            AvailabilityDTO availability = new AvailabilityDTO();
+            availability.setJobCategoryId(UUID.randomUUID());
+            availability.setJobTitle("jobTitle");
+            availability.setPlaceList(List.of("place1"));
+            availability.setStartDate(Instant.now());
+            availability.setEndDate(Instant.now());
+            ids.add(availabilityService.createAvailability(availability).getId());
+        }
+        return ids;
+    }
+
+    private void drive(String baseUrl, List<UUID> ids, Duration duration, LatencyRecorder recorder) {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CONCURRENCY; i++) {
+                int offset = i;
+                clients.submit(() -> {
+                    int next = offset;
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + ids.get(next++ % ids.size())))
+                                .header("Authorization", "Bearer load-test")
+                                .GET()
+                                .build();
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 200) {
+                                recorder.record(System.nanoTime() - start);
+                            } else {
+                                recorder.recordError();
+                            }
+                        } catch (IOException e) {
+                            recorder.recordError();
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package fr.polytech.outbox;
+
+import fr.polytech.model.OutboxEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Publisher keeping the published events in memory, for tests.
+ */
+public class InMemoryOutboxPublisher implements OutboxPublisher {
+
+    private final List<OutboxEvent> published = new ArrayList<>();
+
+    private boolean failing;
+
+    private UUID poisonedAggregateId;
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) {
+        if (failing) {
+            throw new IllegalStateException("Publisher unavailable");
+        }
+        if (events.stream().anyMatch(event -> event.getAggregateId().equals(poisonedAggregateId))) {
+            throw new IllegalArgumentException("Event rejected");
+        }
+        published.addAll(events);
+    }
+
+    public synchronized List<OutboxEvent> getPublished() {
+        return new ArrayList<>(published);
+    }
+
+    public synchronized void setFailing(boolean failing) {
+        this.failing = failing;
+    }
+
+    public synchronized void setPoisonedAggregateId(UUID poisonedAggregateId) {
+        this.poisonedAggregateId = poisonedAggregateId;
+    }
+
+    public synchronized void clear() {
+        published.clear();
+    }
+}
@@ -0,0 +1,147 @@
+package fr.polytech.outbox;
+
+import fr.polytech.model.Availability;
+import fr.polytech.model.AvailabilityDTO;
+import fr.polytech.model.OutboxEvent;
+import fr.polytech.repository.OutboxEventRepository;
+import fr.polytech.service.AvailabilityService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class OutboxRelayTest {
+
+    @TestConfiguration
+    static class InMemoryPublisherConfig {
+
+        @Bean
+        @Primary
+        public InMemoryOutboxPublisher inMemoryOutboxPublisher() {
+            return new InMemoryOutboxPublisher();
+        }
+    }
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private InMemoryOutboxPublisher publisher;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @AfterEach
+    public void resetPublisher() {
+        publisher.setFailing(false);
+        publisher.setPoisonedAggregateId(null);
+        publisher.clear();
+    }
+
+    /**
+     * Test that the writes are relayed once each, in order.
+     */
+    @Test
+    public void testRelayPublishesWritesInOrder() {
+        Availability availability = availabilityService.createAvailability(createAvailabilityDTO());
+        AvailabilityDTO update = createAvailabilityDTO();
+        update.setId(availability.getId());
+        availabilityService.updateAvailability(update);
+        availabilityService.deleteAvailability(availability.getId());
+
+        outboxRelay.relay();
+        outboxRelay.relay();
+
+        List<OutboxEvent> events = publisher.getPublished().stream()
+                .filter(event -> event.getAggregateId().equals(availability.getId()))
+                .toList();
+        assertEquals(List.of("CREATED", "UPDATED", "DELETED"), events.stream().map(OutboxEvent::getType).toList());
+        assertTrue(events.get(0).getId() < events.get(1).getId() && events.get(1).getId() < events.get(2).getId());
+        assertTrue(events.get(0).getPayload().contains(availability.getId().toString()));
+    }
+
+    /**
+     * Test that a rejected write records no event.
+     */
+    @Test
+    public void testRejectedWriteRecordsNothing() {
+        AvailabilityDTO unknown = createAvailabilityDTO();
+        unknown.setId(UUID.randomUUID());
+        assertThrows(HttpClientErrorException.class, () -> availabilityService.updateAvailability(unknown));
+
+        outboxRelay.relay();
+
+        assertTrue(publisher.getPublished().stream().noneMatch(event -> event.getAggregateId().equals(unknown.getId())));
+    }
+
+    /**
+     * Test that the events of a failed publication are published on the next run.
+     */
+    @Test
+    public void testRelayRetriesAfterPublisherFailure() {
+        Availability availability = availabilityService.createAvailability(createAvailabilityDTO());
+
+        publisher.setFailing(true);
+        assertEquals(0, outboxRelay.relay());
+        publisher.setFailing(false);
+        outboxRelay.relay();
+
+        assertEquals(1, publisher.getPublished().stream().filter(event -> event.getAggregateId().equals(availability.getId())).count());
+    }
+
+    /**
+     * Test that an event failing every publication is dead-lettered after the maximum number of attempts,
+     * the events around it being published.
+     */
+    @Test
+    public void testRelayDeadLettersPoisonedEvent() {
+        Availability before = availabilityService.createAvailability(createAvailabilityDTO());
+        Availability poisoned = availabilityService.createAvailability(createAvailabilityDTO());
+        Availability after = availabilityService.createAvailability(createAvailabilityDTO());
+        publisher.setPoisonedAggregateId(poisoned.getId());
+
+        // max-attempts is 3 in the test profile
+        outboxRelay.relay();
+        outboxRelay.relay();
+        assertTrue(publisher.getPublished().stream().anyMatch(event -> event.getAggregateId().equals(before.getId())));
+        assertTrue(publisher.getPublished().stream().noneMatch(event -> event.getAggregateId().equals(after.getId())));
+        outboxRelay.relay();
+        outboxRelay.relay();
+
+        assertTrue(publisher.getPublished().stream().noneMatch(event -> event.getAggregateId().equals(poisoned.getId())));
+        assertTrue(publisher.getPublished().stream().anyMatch(event -> event.getAggregateId().equals(after.getId())));
+        OutboxEvent deadLettered = outboxEventRepository.findAll().stream()
+                .filter(event -> event.getAggregateId().equals(poisoned.getId()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(3, deadLettered.getAttempts());
+        assertNotNull(deadLettered.getDeadLetteredAt());
+        assertNull(deadLettered.getPublishedAt());
+    }
+
+    private AvailabilityDTO createAvailabilityDTO() {
+        AvailabilityDTO availability = new AvailabilityDTO();
+        availability.setJobCategoryId(UUID.randomUUID());
+        availability.setJobTitle("jobTitle");
+        availability.setPlaceList(List.of("place1"));
+        availability.setStartDate(Instant.now());
+        availability.setEndDate(Instant.now());
+        return availability;
+    }
+}
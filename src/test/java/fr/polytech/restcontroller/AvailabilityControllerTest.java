@@ -3,25 +3,48 @@ package fr.polytech.restcontroller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import fr.polytech.model.Availability;
 import fr.polytech.model.AvailabilityDTO;
+import fr.polytech.model.AvailabilityMatchDTO;
+import fr.polytech.model.AvailabilitySummary;
+import fr.polytech.model.BulkItemResult;
+import fr.polytech.model.DetailedAvailabilityDTO;
+import fr.polytech.model.JobCategoryDTO;
+import fr.polytech.model.JobOfferDTO;
+import fr.polytech.model.KeysetPage;
 import fr.polytech.service.AvailabilityService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.client.HttpClientErrorException;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.Arrays;
-import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(value = AvailabilityController.class)
@@ -32,6 +55,12 @@ public class AvailabilityControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    /**
+     * Mapper of the application, which writes the Instant dates the way the controller reads them.
+     */
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @MockBean
     private AvailabilityService availabilityService;
 
@@ -60,6 +89,21 @@ public class AvailabilityControllerTest {
                 .andExpect(status().isOk());
     }
 
+    /**
+     * Test that the endpoint answers in CBOR when the caller prefers it.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    @WithMockUser
+    public void testGetAvailabilityByIdAsCbor() throws Exception {
+        UUID id = UUID.randomUUID();
+        given(availabilityService.getAvailabilityById(id)).willReturn(new Availability());
+        mockMvc.perform(get("/api/v1/availability/" + id)
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+    }
+
     /**
      * Test that the endpoint returns a 200 status code.
      * @throws Exception if an error occurs
@@ -68,14 +112,14 @@ public class AvailabilityControllerTest {
     @WithMockUser
     public void testCreateAvailability() throws Exception {
         AvailabilityDTO availabilityDTO = new AvailabilityDTO();
-        availabilityDTO.setStartDate(new Date());
-        availabilityDTO.setEndDate(new Date());
+        availabilityDTO.setStartDate(Instant.now());
+        availabilityDTO.setEndDate(Instant.now());
         availabilityDTO.setJobCategoryId(UUID.randomUUID());
         availabilityDTO.setJobTitle("jobTitle");
 
         Availability availability = new Availability();
-        availability.setStartDate(new Date());
-        availability.setEndDate(new Date());
+        availability.setStartDate(Instant.now());
+        availability.setEndDate(Instant.now());
         availability.setJobCategoryId(UUID.randomUUID());
         availability.setJobTitle("jobTitle");
 
@@ -83,7 +127,7 @@ public class AvailabilityControllerTest {
 
         mockMvc.perform(post("/api/v1/availability/")
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(new ObjectMapper().writeValueAsString(availabilityDTO))
+                        .content(objectMapper.writeValueAsString(availabilityDTO))
                         .with(csrf()))
                 .andExpect(status().isOk());
     }
@@ -96,22 +140,22 @@ public class AvailabilityControllerTest {
     @WithMockUser
     public void testUpdateAvailability() throws Exception {
         AvailabilityDTO availabilityDTO = new AvailabilityDTO();
-        availabilityDTO.setStartDate(new Date());
-        availabilityDTO.setEndDate(new Date());
+        availabilityDTO.setStartDate(Instant.now());
+        availabilityDTO.setEndDate(Instant.now());
         availabilityDTO.setJobCategoryId(UUID.randomUUID());
         availabilityDTO.setJobTitle("jobTitle");
 
         Availability availability = new Availability();
-        availability.setStartDate(new Date());
-        availability.setEndDate(new Date());
+        availability.setStartDate(Instant.now());
+        availability.setEndDate(Instant.now());
         availability.setJobCategoryId(UUID.randomUUID());
         availability.setJobTitle("jobTitle");
 
-        given(availabilityService.updateAvailability(any(AvailabilityDTO.class))).willReturn(availability);
+        given(availabilityService.updateAvailability(any(AvailabilityDTO.class), isNull())).willReturn(availability);
 
         mockMvc.perform(put("/api/v1/availability/")
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(new ObjectMapper().writeValueAsString(availabilityDTO))
+                        .content(objectMapper.writeValueAsString(availabilityDTO))
                         .with(csrf()))
                 .andExpect(status().isOk());
     }
@@ -127,4 +171,236 @@ public class AvailabilityControllerTest {
         mockMvc.perform(delete("/api/v1/availability/" + id).with(csrf()))
                 .andExpect(status().isOk());
     }
-}
\ No newline at end of file
+
+    /**
+     * Test that the endpoint returns a 200 status code.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    @WithMockUser
+    public void testSearchAvailabilities() throws Exception {
+        given(availabilityService.searchAvailabilities(any(Instant.class), any(Instant.class))).willReturn(Arrays.asList(new Availability(), new Availability()));
+        mockMvc.perform(get("/api/v1/availability/search")
+                        .param("from", "2031-07-01T00:00:00.000Z")
+                        .param("to", "2031-07-31T00:00:00.000Z"))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * Test that the endpoint returns a 200 status code.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    @WithMockUser
+    public void testGetAvailabilityPage() throws Exception {
+        given(availabilityService.getAvailabilityPage(10, null)).willReturn(new KeysetPage<>(Arrays.asList(new Availability(), new Availability()), "token"));
+        mockMvc.perform(get("/api/v1/availability/page").param("size", "10"))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * Test that the endpoint returns a 304 status code when the ETag matches.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    @WithMockUser
+    public void testGetAvailabilityByIdNotModified() throws Exception {
+        UUID id = UUID.randomUUID();
+        Availability availability = new Availability();
+        availability.setVersion(3);
+        given(availabilityService.getAvailabilityById(id)).willReturn(availability);
+        mockMvc.perform(get("/api/v1/availability/" + id).header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(content().string(""));
+    }
+
+    /**
+     * Test that the endpoint returns a 304 status code while neither the availability nor its job category changed.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testGetDetailedAvailabilityByIdNotModified() throws Exception {
+        UUID id = UUID.randomUUID();
+        JobCategoryDTO jobCategory = new JobCategoryDTO();
+        jobCategory.setId(UUID.randomUUID());
+        jobCategory.setName("name");
+        DetailedAvailabilityDTO detailedAvailability = new DetailedAvailabilityDTO();
+        detailedAvailability.setJobCategory(jobCategory);
+        given(availabilityService.getAvailabilityVersion(id)).willReturn(3L);
+        given(availabilityService.getDetailedAvailabilityById(id, "Bearer token")).willReturn(detailedAvailability);
+
+        String eTag = mockMvc.perform(get("/api/v1/availability/detailed/" + id).with(jwt().jwt(token -> token.tokenValue("token"))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/v1/availability/detailed/" + id)
+                        .with(jwt().jwt(token -> token.tokenValue("token")))
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+        // A renamed job category changes the body, so the cached copy is no longer valid
+        jobCategory.setName("renamed");
+        mockMvc.perform(get("/api/v1/availability/detailed/" + id)
+                        .with(jwt().jwt(token -> token.tokenValue("token")))
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * Test that the endpoint returns a 412 status code when the availability has changed since the If-Match version.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    @WithMockUser
+    public void testUpdateAvailabilityWithStaleVersion() throws Exception {
+        AvailabilityDTO availabilityDTO = new AvailabilityDTO();
+        availabilityDTO.setId(UUID.randomUUID());
+        given(availabilityService.updateAvailability(any(AvailabilityDTO.class), eq(2L))).willThrow(new HttpClientErrorException(HttpStatus.PRECONDITION_FAILED));
+        mockMvc.perform(put("/api/v1/availability/")
+                        .header("If-Match", "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(availabilityDTO))
+                        .with(csrf()))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    /**
+     * Test that the endpoint returns a 200 status code with the new ETag.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    @WithMockUser
+    public void testPatchAvailability() throws Exception {
+        UUID id = UUID.randomUUID();
+        Availability availability = new Availability();
+        availability.setVersion(4);
+        given(availabilityService.patchAvailability(eq(id), any(AvailabilityDTO.class), eq(3L))).willReturn(availability);
+        mockMvc.perform(patch("/api/v1/availability/" + id)
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"jobTitle\":\"jobTitle\"}")
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""));
+    }
+
+    /**
+     * Test that the endpoint returns a 200 status code.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    @WithMockUser
+    public void testFilterAvailabilities() throws Exception {
+        UUID jobCategoryId = UUID.randomUUID();
+        given(availabilityService.filterAvailabilities(eq("Montpellier"), eq(jobCategoryId), any(Instant.class), any(Instant.class), eq(false), isNull(), isNull())).willReturn(new KeysetPage<>(Arrays.asList(new Availability(), new Availability()), null));
+        mockMvc.perform(get("/api/v1/availability/filter")
+                        .param("place", "Montpellier")
+                        .param("jobCategoryId", jobCategoryId.toString())
+                        .param("from", "2038-07-01T00:00:00.000Z")
+                        .param("to", "2038-07-31T00:00:00.000Z"))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * Test that the endpoint returns a 200 status code.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    @WithMockUser
+    public void testGetAvailabilitySummaryPage() throws Exception {
+        AvailabilitySummary summary = new AvailabilitySummary(UUID.randomUUID(), "jobTitle", UUID.randomUUID(), Instant.now(), Instant.now());
+        given(availabilityService.getAvailabilitySummaryPage(isNull(), isNull())).willReturn(new KeysetPage<>(List.of(summary), "token"));
+        mockMvc.perform(get("/api/v1/availability/summary/page"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"content\": [{\"id\": \"" + summary.id() + "\", \"jobTitle\": \"jobTitle\"}], \"nextToken\": \"token\"}"));
+    }
+
+    /**
+     * Test that the endpoint returns the weekly counts keyed by week start.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    @WithMockUser
+    public void testGetJobCategoryStatistics() throws Exception {
+        UUID jobCategoryId = UUID.randomUUID();
+        given(availabilityService.getJobCategoryStatistics(jobCategoryId, LocalDate.of(2038, 7, 1), LocalDate.of(2038, 7, 31)))
+                .willReturn(new TreeMap<>(Map.of(LocalDate.of(2038, 6, 28), 3)));
+        mockMvc.perform(get("/api/v1/availability/statistics/job-category/" + jobCategoryId)
+                        .param("from", "2038-07-01")
+                        .param("to", "2038-07-31"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"2038-06-28\": 3}"));
+    }
+
+    /**
+     * Test that the endpoint returns a 200 status code.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    @WithMockUser
+    public void testMatchAvailabilities() throws Exception {
+        given(availabilityService.matchAvailabilities(any(JobOfferDTO.class), isNull())).willReturn(List.of(new AvailabilityMatchDTO(new Availability(), 1.0)));
+        mockMvc.perform(post("/api/v1/availability/match")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new JobOfferDTO()))
+                        .with(csrf()))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * Test that the endpoint starts streaming the export.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    @WithMockUser
+    public void testExportAvailabilities() throws Exception {
+        mockMvc.perform(get("/api/v1/availability/export"))
+                .andExpect(request().asyncStarted());
+    }
+
+    /**
+     * Test that the endpoint returns a 200 status code.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testGetDetailedAvailabilitiesByIds() throws Exception {
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID());
+        given(availabilityService.getDetailedAvailabilitiesByIds(anyList(), eq("Bearer token"))).willReturn(Arrays.asList(new DetailedAvailabilityDTO(), new DetailedAvailabilityDTO()));
+        mockMvc.perform(post("/api/v1/availability/detailed/batch")
+                        .with(jwt().jwt(token -> token.tokenValue("token")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ids))
+                        .with(csrf()))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * Test that the endpoint returns a 200 status code.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    @WithMockUser
+    public void testCreateAvailabilities() throws Exception {
+        given(availabilityService.createAvailabilities(anyList())).willReturn(List.of(new BulkItemResult(0, UUID.randomUUID(), 201, null)));
+        mockMvc.perform(post("/api/v1/availability/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(new AvailabilityDTO())))
+                        .with(csrf()))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * Test that the endpoint returns a 400 status code when the batch is rejected.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    @WithMockUser
+    public void testDeleteAvailabilitiesWithEmptyBatch() throws Exception {
+        given(availabilityService.deleteAvailabilities(anyList())).willThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST));
+        mockMvc.perform(delete("/api/v1/availability/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]")
+                        .with(csrf()))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -1,21 +1,49 @@
 package fr.polytech.service;
 
+import fr.polytech.event.AvailabilityChangedEvent;
+import fr.polytech.index.AvailabilityMatchIndex;
 import fr.polytech.model.Availability;
 import fr.polytech.model.AvailabilityDTO;
+import fr.polytech.model.AvailabilityMatchDTO;
+import fr.polytech.model.AvailabilitySummary;
+import fr.polytech.model.BulkItemResult;
+import fr.polytech.model.DetailedAvailabilityDTO;
+import fr.polytech.model.JobCategoryDTO;
+import fr.polytech.model.JobOfferDTO;
+import fr.polytech.model.KeysetPage;
 import fr.polytech.repository.AvailabilityRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpStatus;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.HttpClientErrorException;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
 
 @SpringBootTest
 @ActiveProfiles("test")
@@ -27,6 +55,21 @@ public class AvailabilityServiceTest {
     @Autowired
     private AvailabilityService availabilityService;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AvailabilityMatchIndex availabilityMatchIndex;
+
+    @MockBean
+    private JobCategoryService jobCategoryService;
+
     /**
      * Test that the method returns a list of availabilities.
      */
@@ -41,6 +84,35 @@ public class AvailabilityServiceTest {
         assertTrue(result.size() >= 2);
     }
 
+    /**
+     * Test that the service methods are timed.
+     */
+    @Test
+    public void testGetAllAvailabilitiesIsTimed() {
+        availabilityService.getAllAvailabilities();
+
+        Timer timer = meterRegistry.find("availability.service").tag("method", "getAllAvailabilities").tag("exception", "none").timer();
+        assertNotNull(timer);
+        assertTrue(timer.count() >= 1);
+    }
+
+    /**
+     * Test that listing the availabilities with their places issues the same number of statements whatever the row count.
+     */
+    @Test
+    public void testGetAllAvailabilitiesStatementCountIsConstant() {
+        availabilityService.createAvailability(createAvailabilityDTO(2035, Calendar.JULY, 1, 2035, Calendar.JULY, 31));
+        long statementsForFewRows = countGetAllAvailabilitiesStatements();
+
+        for (int i = 0; i < 20; i++) {
+            availabilityService.createAvailability(createAvailabilityDTO(2035, Calendar.JULY, 1, 2035, Calendar.JULY, 31));
+        }
+        long statementsForManyRows = countGetAllAvailabilitiesStatements();
+
+        assertEquals(1, statementsForFewRows);
+        assertEquals(statementsForFewRows, statementsForManyRows);
+    }
+
     /**
      * Test that the method returns an availability with the specified id.
      */
@@ -69,8 +141,8 @@ public class AvailabilityServiceTest {
     @Test
     public void testCreateAvailability() {
         AvailabilityDTO availability = new AvailabilityDTO();
-        availability.setStartDate(new Date());
-        availability.setEndDate(new Date());
+        availability.setStartDate(Instant.now());
+        availability.setEndDate(Instant.now());
         availability.setJobCategoryId(UUID.randomUUID());
         availability.setJobTitle("jobTitle");
         availability.setPlaceList(List.of("place1", "place2"));
@@ -89,25 +161,33 @@ public class AvailabilityServiceTest {
         availability.setJobCategoryId(UUID.randomUUID());
         availability.setJobTitle("jobTitle");
         availability.setPlaceList(List.of("place1", "place2"));
-        availability.setStartDate(new Date());
+        availability.setStartDate(Instant.now());
         // Set the end date to one second before the start date
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(availability.getStartDate());
-        calendar.add(Calendar.SECOND, -1);
-        availability.setEndDate(calendar.getTime());
+        availability.setEndDate(availability.getStartDate().minusSeconds(1));
 
         // Check that an exception is thrown with status code 400
         HttpClientErrorException exception = assertThrows(HttpClientErrorException.class, () -> availabilityService.createAvailability(availability));
         assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
     }
 
+    /**
+     * Test that the method throws an exception when the availability is longer than the maximum duration.
+     */
+    @Test
+    public void testCreateAvailabilityWithTooWideRange() {
+        AvailabilityDTO availability = createAvailabilityDTO(1, Calendar.JANUARY, 1, 9999, Calendar.DECEMBER, 31);
+
+        HttpClientErrorException exception = assertThrows(HttpClientErrorException.class, () -> availabilityService.createAvailability(availability));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+    }
+
     /**
      * Test that the method throws an exception when the availability does not have all the required attributes.
      */
     @Test
     public void testCreateAvailabilityWithMissingAttributes() {
         AvailabilityDTO availability = new AvailabilityDTO();
-        availability.setStartDate(new Date());
+        availability.setStartDate(Instant.now());
 
         // Check that an exception is thrown with status code 400
         HttpClientErrorException exception = assertThrows(HttpClientErrorException.class, () -> availabilityService.createAvailability(availability));
@@ -123,8 +203,8 @@ public class AvailabilityServiceTest {
         availabilityToSave.setJobCategoryId(UUID.randomUUID());
         availabilityToSave.setJobTitle("jobTitle");
         availabilityToSave.setPlaceList(List.of("place1", "place2"));
-        availabilityToSave.setStartDate(new Date());
-        availabilityToSave.setEndDate(new Date());
+        availabilityToSave.setStartDate(Instant.now());
+        availabilityToSave.setEndDate(Instant.now());
         Availability savedAvailability = availabilityRepository.save(availabilityToSave);
 
         AvailabilityDTO availability = new AvailabilityDTO();
@@ -132,8 +212,8 @@ public class AvailabilityServiceTest {
         availability.setJobTitle("jobTitle");
         availability.setPlaceList(List.of("place1"));
         availability.setId(savedAvailability.getId());
-        availability.setStartDate(new Date());
-        availability.setEndDate(new Date());
+        availability.setStartDate(Instant.now());
+        availability.setEndDate(Instant.now());
 
         Availability result = availabilityService.updateAvailability(availability);
         assertNotNull(result);
@@ -149,8 +229,8 @@ public class AvailabilityServiceTest {
         availabilityToSave.setJobCategoryId(UUID.randomUUID());
         availabilityToSave.setJobTitle("jobTitle");
         availabilityToSave.setPlaceList(List.of("place1", "place2"));
-        availabilityToSave.setStartDate(new Date());
-        availabilityToSave.setEndDate(new Date());
+        availabilityToSave.setStartDate(Instant.now());
+        availabilityToSave.setEndDate(Instant.now());
         Availability savedAvailability = availabilityRepository.save(availabilityToSave);
 
         AvailabilityDTO availability = new AvailabilityDTO();
@@ -158,12 +238,9 @@ public class AvailabilityServiceTest {
         availability.setJobTitle("jobTitle");
         availability.setPlaceList(List.of("place1"));
         availability.setId(savedAvailability.getId());
-        availability.setStartDate(new Date());
+        availability.setStartDate(Instant.now());
         // Set the end date to one second before the start date
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(availability.getStartDate());
-        calendar.add(Calendar.SECOND, -1);
-        availability.setEndDate(calendar.getTime());
+        availability.setEndDate(availability.getStartDate().minusSeconds(1));
 
         // Check that an exception is thrown with status code 400
         HttpClientErrorException exception = assertThrows(HttpClientErrorException.class, () -> availabilityService.updateAvailability(availability));
@@ -179,13 +256,13 @@ public class AvailabilityServiceTest {
         availabilityToSave.setJobCategoryId(UUID.randomUUID());
         availabilityToSave.setJobTitle("jobTitle");
         availabilityToSave.setPlaceList(List.of("place1", "place2"));
-        availabilityToSave.setStartDate(new Date());
-        availabilityToSave.setEndDate(new Date());
+        availabilityToSave.setStartDate(Instant.now());
+        availabilityToSave.setEndDate(Instant.now());
         Availability savedAvailability = availabilityRepository.save(availabilityToSave);
 
         AvailabilityDTO availability = new AvailabilityDTO();
         availability.setId(savedAvailability.getId());
-        availability.setStartDate(new Date());
+        availability.setStartDate(Instant.now());
 
         // Check that an exception is thrown with status code 400
         HttpClientErrorException exception = assertThrows(HttpClientErrorException.class, () -> availabilityService.updateAvailability(availability));
@@ -199,8 +276,8 @@ public class AvailabilityServiceTest {
     public void testUpdateAvailabilityWithInvalidId() {
         AvailabilityDTO availability = new AvailabilityDTO();
         availability.setId(UUID.randomUUID());
-        availability.setStartDate(new Date());
-        availability.setEndDate(new Date());
+        availability.setStartDate(Instant.now());
+        availability.setEndDate(Instant.now());
         availability.setJobCategoryId(UUID.randomUUID());
         availability.setJobTitle("jobTitle");
         availability.setPlaceList(List.of("place1", "place2"));
@@ -223,4 +300,558 @@ public class AvailabilityServiceTest {
         assertFalse(availabilityRepository.findById(savedAvailability.getId()).isPresent());
     }
 
+    /**
+     * Test that deleting an availability also deletes its places, and that a missing one is reported.
+     */
+    @Test
+    public void testDeleteAvailabilityWithPlaces() {
+        Availability saved = availabilityService.createAvailability(createAvailabilityDTO(2041, Calendar.MARCH, 1, 2041, Calendar.MARCH, 31));
+
+        availabilityService.deleteAvailability(saved.getId());
+
+        assertFalse(availabilityRepository.findById(saved.getId()).isPresent());
+        HttpClientErrorException exception = assertThrows(HttpClientErrorException.class, () -> availabilityService.deleteAvailability(saved.getId()));
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+    }
+
+    /**
+     * Test that a patch only changes the supplied fields.
+     */
+    @Test
+    public void testPatchAvailability() {
+        AvailabilityDTO availabilityDTO = createAvailabilityDTO(2041, Calendar.APRIL, 1, 2041, Calendar.APRIL, 30);
+        Availability saved = availabilityService.createAvailability(availabilityDTO);
+
+        AvailabilityDTO patch = new AvailabilityDTO();
+        patch.setJobTitle("patchedJobTitle");
+        Availability patched = availabilityService.patchAvailability(saved.getId(), patch, saved.getVersion());
+
+        assertEquals(saved.getVersion() + 1, patched.getVersion());
+        Availability reloaded = availabilityService.getAvailabilityById(saved.getId());
+        assertEquals("patchedJobTitle", reloaded.getJobTitle());
+        assertEquals(availabilityDTO.getJobCategoryId(), reloaded.getJobCategoryId());
+        assertEquals(availabilityDTO.getStartDate().toEpochMilli(), reloaded.getStartDate().toEpochMilli());
+
+        // The resulting availability must still be valid
+        AvailabilityDTO invalidPatch = new AvailabilityDTO();
+        invalidPatch.setEndDate(date(2041, Calendar.MARCH, 1));
+        HttpClientErrorException exception = assertThrows(HttpClientErrorException.class, () -> availabilityService.patchAvailability(saved.getId(), invalidPatch, null));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        assertThrows(HttpClientErrorException.class, () -> availabilityService.patchAvailability(UUID.randomUUID(), patch, null));
+    }
+
+    /**
+     * Test that repeated reads of an availability and its places are served by the second-level cache.
+     */
+    @Test
+    public void testGetAvailabilityByIdUsesSecondLevelCache() {
+        Availability saved = availabilityService.createAvailability(createAvailabilityDTO(2042, Calendar.MAY, 1, 2042, Calendar.MAY, 31));
+        entityManagerFactory.getCache().evictAll();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        transactionTemplate.executeWithoutResult(status -> availabilityService.getAvailabilityById(saved.getId()).getPlaceList().size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        transactionTemplate.executeWithoutResult(status -> availabilityService.getAvailabilityById(saved.getId()).getPlaceList().size());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getDomainDataRegionStatistics(Availability.CACHE_REGION).getHitCount() > 0);
+        assertTrue(statistics.getDomainDataRegionStatistics(Availability.PLACE_LIST_CACHE_REGION).getHitCount() > 0);
+    }
+
+    /**
+     * Test that the search returns only the availabilities overlapping the window.
+     */
+    @Test
+    public void testSearchAvailabilities() {
+        Availability inside = availabilityService.createAvailability(createAvailabilityDTO(2031, Calendar.JULY, 1, 2031, Calendar.JULY, 31));
+        Availability overlapping = availabilityService.createAvailability(createAvailabilityDTO(2031, Calendar.JUNE, 15, 2031, Calendar.JULY, 2));
+        Availability outside = availabilityService.createAvailability(createAvailabilityDTO(2031, Calendar.AUGUST, 1, 2031, Calendar.AUGUST, 31));
+
+        List<Availability> result = availabilityService.searchAvailabilities(date(2031, Calendar.JULY, 1), date(2031, Calendar.JULY, 15));
+        List<UUID> ids = result.stream().map(Availability::getId).toList();
+
+        assertTrue(ids.contains(inside.getId()));
+        assertTrue(ids.contains(overlapping.getId()));
+        assertFalse(ids.contains(outside.getId()));
+    }
+
+    /**
+     * Test that the search index follows the updates and deletions.
+     */
+    @Test
+    public void testSearchAvailabilitiesAfterUpdateAndDelete() {
+        Availability availability = availabilityService.createAvailability(createAvailabilityDTO(2032, Calendar.JULY, 1, 2032, Calendar.JULY, 31));
+
+        AvailabilityDTO update = createAvailabilityDTO(2032, Calendar.SEPTEMBER, 1, 2032, Calendar.SEPTEMBER, 30);
+        update.setId(availability.getId());
+        availabilityService.updateAvailability(update);
+
+        assertTrue(availabilityService.searchAvailabilities(date(2032, Calendar.JULY, 1), date(2032, Calendar.JULY, 31)).isEmpty());
+        assertEquals(1, availabilityService.searchAvailabilities(date(2032, Calendar.SEPTEMBER, 10), date(2032, Calendar.SEPTEMBER, 10)).size());
+
+        availabilityService.deleteAvailability(availability.getId());
+        assertTrue(availabilityService.searchAvailabilities(date(2032, Calendar.SEPTEMBER, 10), date(2032, Calendar.SEPTEMBER, 10)).isEmpty());
+    }
+
+    /**
+     * Test that the search drops the rows the index is stale about, such as rows written by another instance.
+     */
+    @Test
+    public void testSearchAvailabilitiesWithStaleIndex() {
+        Availability availability = availabilityService.createAvailability(createAvailabilityDTO(2033, Calendar.JULY, 1, 2033, Calendar.JULY, 31));
+
+        // Written without going through the service, so the index is not told
+        Availability moved = availabilityRepository.findById(availability.getId()).orElseThrow();
+        moved.setStartDate(date(2033, Calendar.SEPTEMBER, 1));
+        moved.setEndDate(date(2033, Calendar.SEPTEMBER, 30));
+        availabilityRepository.save(moved);
+
+        assertTrue(availabilityService.searchAvailabilities(date(2033, Calendar.JULY, 1), date(2033, Calendar.JULY, 31)).isEmpty());
+        assertTrue(availabilityService.searchAvailabilitySummaries(date(2033, Calendar.JULY, 1), date(2033, Calendar.JULY, 31)).isEmpty());
+    }
+
+    /**
+     * Test that the search throws an exception when the window is reversed.
+     */
+    @Test
+    public void testSearchAvailabilitiesWithInvalidWindow() {
+        // Check that an exception is thrown with status code 400
+        HttpClientErrorException exception = assertThrows(HttpClientErrorException.class, () -> availabilityService.searchAvailabilities(date(2031, Calendar.JULY, 15), date(2031, Calendar.JULY, 1)));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+    }
+
+    /**
+     * Test that walking the keyset pages returns every availability once, in start date order.
+     */
+    @Test
+    public void testGetAvailabilityPage() {
+        Set<UUID> created = new HashSet<>();
+        for (int day = 1; day <= 5; day++) {
+            // Two availabilities share each start date to exercise the id tie-breaker
+            created.add(availabilityService.createAvailability(createAvailabilityDTO(2033, Calendar.MARCH, day, 2033, Calendar.APRIL, 1)).getId());
+            created.add(availabilityService.createAvailability(createAvailabilityDTO(2033, Calendar.MARCH, day, 2033, Calendar.APRIL, 2)).getId());
+        }
+
+        Set<UUID> seen = new HashSet<>();
+        Instant previousStartDate = null;
+        String token = null;
+        do {
+            KeysetPage<Availability> page = availabilityService.getAvailabilityPage(3, token);
+            assertTrue(page.getContent().size() <= 3);
+            for (Availability availability : page.getContent()) {
+                assertTrue(seen.add(availability.getId()));
+                assertTrue(previousStartDate == null || !availability.getStartDate().isBefore(previousStartDate));
+                previousStartDate = availability.getStartDate();
+            }
+            token = page.getNextToken();
+        } while (token != null);
+
+        assertTrue(seen.containsAll(created));
+    }
+
+    /**
+     * Test that the filter combines place, job category and date overlap, and pages through the matches.
+     */
+    @Test
+    public void testFilterAvailabilities() {
+        UUID jobCategoryId = UUID.randomUUID();
+        Set<UUID> expected = new HashSet<>();
+        for (int day = 1; day <= 3; day++) {
+            AvailabilityDTO matching = createAvailabilityDTO(2038, Calendar.JUNE, 20 + day, 2038, Calendar.JULY, day);
+            matching.setJobCategoryId(jobCategoryId);
+            matching.setPlaceList(List.of("Nantes", "Montpellier"));
+            expected.add(availabilityService.createAvailability(matching).getId());
+        }
+        AvailabilityDTO otherPlace = createAvailabilityDTO(2038, Calendar.JULY, 1, 2038, Calendar.JULY, 31);
+        otherPlace.setJobCategoryId(jobCategoryId);
+        availabilityService.createAvailability(otherPlace);
+        AvailabilityDTO otherCategory = createAvailabilityDTO(2038, Calendar.JULY, 1, 2038, Calendar.JULY, 31);
+        otherCategory.setPlaceList(List.of("Montpellier"));
+        availabilityService.createAvailability(otherCategory);
+        AvailabilityDTO otherWindow = createAvailabilityDTO(2038, Calendar.SEPTEMBER, 1, 2038, Calendar.SEPTEMBER, 30);
+        otherWindow.setJobCategoryId(jobCategoryId);
+        otherWindow.setPlaceList(List.of("Montpellier"));
+        availabilityService.createAvailability(otherWindow);
+
+        Set<UUID> seen = new HashSet<>();
+        String token = null;
+        do {
+            KeysetPage<Availability> page = availabilityService.filterAvailabilities("Montpellier", jobCategoryId, date(2038, Calendar.JULY, 1), date(2038, Calendar.JULY, 31), false, 2, token);
+            assertTrue(page.getContent().size() <= 2);
+            page.getContent().forEach(availability -> assertTrue(seen.add(availability.getId())));
+            token = page.getNextToken();
+        } while (token != null);
+
+        assertEquals(expected, seen);
+        assertThrows(HttpClientErrorException.class, () -> availabilityService.filterAvailabilities(null, null, date(2038, Calendar.JULY, 31), date(2038, Calendar.JULY, 1), false, null, null));
+    }
+
+    /**
+     * Test that paging goes past rows whose start dates differ by less than a millisecond.
+     */
+    @Test
+    public void testFilterAvailabilitiesWithSubMillisecondStartDates() {
+        UUID jobCategoryId = UUID.randomUUID();
+        List<UUID> expected = new ArrayList<>();
+        for (int micros = 1; micros <= 3; micros++) {
+            AvailabilityDTO availability = createAvailabilityDTO(2044, Calendar.JULY, 1, 2044, Calendar.JULY, 31);
+            availability.setJobCategoryId(jobCategoryId);
+            availability.setStartDate(availability.getStartDate().plusNanos(micros * 1000L));
+            expected.add(availabilityService.createAvailability(availability).getId());
+        }
+
+        List<UUID> seen = new ArrayList<>();
+        String token = null;
+        // Bounded, a token losing the sub-millisecond part would page forever on the same row
+        for (int pages = 0; pages < 10; pages++) {
+            KeysetPage<Availability> page = availabilityService.filterAvailabilities(null, jobCategoryId, null, null, false, 1, token);
+            page.getContent().forEach(availability -> seen.add(availability.getId()));
+            token = page.getNextToken();
+            if (token == null) {
+                break;
+            }
+        }
+
+        assertEquals(expected, seen);
+    }
+
+    /**
+     * Test that the covering filter only keeps the availabilities spanning the whole window, bounds included.
+     */
+    @Test
+    public void testFilterAvailabilitiesCovering() {
+        UUID jobCategoryId = UUID.randomUUID();
+        AvailabilityDTO exact = createAvailabilityDTO(2043, Calendar.JULY, 1, 2043, Calendar.JULY, 31);
+        exact.setJobCategoryId(jobCategoryId);
+        AvailabilityDTO wider = createAvailabilityDTO(2043, Calendar.JUNE, 1, 2043, Calendar.AUGUST, 31);
+        wider.setJobCategoryId(jobCategoryId);
+        AvailabilityDTO partial = createAvailabilityDTO(2043, Calendar.JULY, 2, 2043, Calendar.AUGUST, 31);
+        partial.setJobCategoryId(jobCategoryId);
+        Set<UUID> expected = Set.of(availabilityService.createAvailability(exact).getId(), availabilityService.createAvailability(wider).getId());
+        UUID partialId = availabilityService.createAvailability(partial).getId();
+
+        KeysetPage<Availability> covering = availabilityService.filterAvailabilities(null, jobCategoryId, date(2043, Calendar.JULY, 1), date(2043, Calendar.JULY, 31), true, null, null);
+        KeysetPage<Availability> overlapping = availabilityService.filterAvailabilities(null, jobCategoryId, date(2043, Calendar.JULY, 1), date(2043, Calendar.JULY, 31), false, null, null);
+
+        assertEquals(expected, covering.getContent().stream().map(Availability::getId).collect(Collectors.toSet()));
+        assertTrue(overlapping.getContent().stream().anyMatch(availability -> availability.getId().equals(partialId)));
+        assertThrows(HttpClientErrorException.class, () -> availabilityService.filterAvailabilities(null, jobCategoryId, date(2043, Calendar.JULY, 1), null, true, null, null));
+    }
+
+    /**
+     * Test that the summaries page through the same rows as the availability pages, without loading any entity.
+     */
+    @Test
+    public void testGetAvailabilitySummaryPageLoadsNoEntity() {
+        for (int i = 0; i < 3; i++) {
+            availabilityService.createAvailability(createAvailabilityDTO(2045, Calendar.JANUARY, 1 + i, 2045, Calendar.JANUARY, 31));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<UUID> summaryIds = new ArrayList<>();
+        String token = null;
+        do {
+            KeysetPage<AvailabilitySummary> page = availabilityService.getAvailabilitySummaryPage(2, token);
+            page.getContent().forEach(summary -> summaryIds.add(summary.id()));
+            token = page.getNextToken();
+        } while (token != null);
+
+        assertEquals(0, statistics.getEntityLoadCount());
+        Set<UUID> expected = availabilityService.getAllAvailabilities().stream()
+                .filter(availability -> availability.getStartDate() != null)
+                .map(Availability::getId)
+                .collect(Collectors.toSet());
+        assertEquals(expected.size(), summaryIds.size());
+        assertEquals(expected, new HashSet<>(summaryIds));
+    }
+
+    /**
+     * Test that the weekly statistics follow the creates, updates and deletes, and match a full rebuild.
+     */
+    @Test
+    public void testStatisticsFollowWrites() {
+        UUID jobCategoryId = UUID.randomUUID();
+        String place = "Statistics-" + UUID.randomUUID();
+        AvailabilityDTO threeWeeks = createAvailabilityDTO(2044, Calendar.JULY, 6, 2044, Calendar.JULY, 20);
+        threeWeeks.setJobCategoryId(jobCategoryId);
+        threeWeeks.setPlaceList(List.of(place));
+        Availability first = availabilityService.createAvailability(threeWeeks);
+        AvailabilityDTO oneWeek = createAvailabilityDTO(2044, Calendar.JULY, 13, 2044, Calendar.JULY, 13);
+        oneWeek.setJobCategoryId(jobCategoryId);
+        oneWeek.setPlaceList(List.of(place, "Nantes"));
+        Availability second = availabilityService.createAvailability(oneWeek);
+
+        LocalDate from = LocalDate.of(2044, 7, 1);
+        LocalDate to = LocalDate.of(2044, 8, 31);
+        Map<LocalDate, Integer> expected = Map.of(LocalDate.of(2044, 7, 4), 1, LocalDate.of(2044, 7, 11), 2, LocalDate.of(2044, 7, 18), 1);
+        assertEquals(expected, availabilityService.getJobCategoryStatistics(jobCategoryId, from, to));
+        assertEquals(expected, availabilityService.getPlaceStatistics(place, from, to));
+
+        AvailabilityDTO moved = createAvailabilityDTO(2044, Calendar.AUGUST, 10, 2044, Calendar.AUGUST, 10);
+        moved.setId(second.getId());
+        moved.setJobCategoryId(jobCategoryId);
+        moved.setPlaceList(List.of(place));
+        availabilityService.updateAvailability(moved);
+        availabilityService.deleteAvailability(first.getId());
+
+        expected = Map.of(LocalDate.of(2044, 8, 8), 1);
+        assertEquals(expected, availabilityService.getJobCategoryStatistics(jobCategoryId, from, to));
+        assertEquals(expected, availabilityService.getPlaceStatistics(place, from, to));
+
+        availabilityService.rebuildStatistics();
+        assertEquals(expected, availabilityService.getJobCategoryStatistics(jobCategoryId, from, to));
+        assertEquals(expected, availabilityService.getPlaceStatistics(place, from, to));
+        assertThrows(HttpClientErrorException.class, () -> availabilityService.getPlaceStatistics(place, to, from));
+    }
+
+    /**
+     * Test that the availabilities matching a job offer are ranked by overlap and place match.
+     */
+    @Test
+    public void testMatchAvailabilities() {
+        UUID jobCategoryId = UUID.randomUUID();
+        AvailabilityDTO fullOverlapAllPlaces = createAvailabilityDTO(2039, Calendar.JULY, 1, 2039, Calendar.JULY, 31);
+        fullOverlapAllPlaces.setJobCategoryId(jobCategoryId);
+        fullOverlapAllPlaces.setPlaceList(List.of("Montpellier", "Sete"));
+        AvailabilityDTO fullOverlapOnePlace = createAvailabilityDTO(2039, Calendar.JULY, 1, 2039, Calendar.JULY, 31);
+        fullOverlapOnePlace.setJobCategoryId(jobCategoryId);
+        fullOverlapOnePlace.setPlaceList(List.of("Montpellier"));
+        AvailabilityDTO partialOverlapOnePlace = createAvailabilityDTO(2039, Calendar.JULY, 20, 2039, Calendar.AUGUST, 31);
+        partialOverlapOnePlace.setJobCategoryId(jobCategoryId);
+        partialOverlapOnePlace.setPlaceList(List.of("Sete"));
+        AvailabilityDTO otherPlace = createAvailabilityDTO(2039, Calendar.JULY, 1, 2039, Calendar.JULY, 31);
+        otherPlace.setJobCategoryId(jobCategoryId);
+        AvailabilityDTO otherCategory = createAvailabilityDTO(2039, Calendar.JULY, 1, 2039, Calendar.JULY, 31);
+        otherCategory.setPlaceList(List.of("Montpellier"));
+        AvailabilityDTO deleted = createAvailabilityDTO(2039, Calendar.JULY, 1, 2039, Calendar.JULY, 31);
+        deleted.setJobCategoryId(jobCategoryId);
+        deleted.setPlaceList(List.of("Montpellier", "Sete"));
+
+        UUID first = availabilityService.createAvailability(fullOverlapAllPlaces).getId();
+        UUID second = availabilityService.createAvailability(fullOverlapOnePlace).getId();
+        UUID third = availabilityService.createAvailability(partialOverlapOnePlace).getId();
+        availabilityService.createAvailability(otherPlace);
+        availabilityService.createAvailability(otherCategory);
+        availabilityService.deleteAvailability(availabilityService.createAvailability(deleted).getId());
+
+        JobOfferDTO jobOffer = new JobOfferDTO();
+        jobOffer.setJobCategoryId(jobCategoryId);
+        jobOffer.setPlaceList(List.of("Montpellier", "Sete"));
+        jobOffer.setStartDate(date(2039, Calendar.JULY, 1));
+        jobOffer.setEndDate(date(2039, Calendar.JULY, 31));
+        List<AvailabilityMatchDTO> matches = availabilityService.matchAvailabilities(jobOffer, null);
+
+        assertEquals(List.of(first, second, third), matches.stream().map(match -> match.getAvailability().getId()).toList());
+        assertEquals(1.0, matches.get(0).getScore(), 1e-9);
+        assertTrue(matches.get(1).getScore() > matches.get(2).getScore());
+        assertEquals(List.of(first), availabilityService.matchAvailabilities(jobOffer, 1).stream().map(match -> match.getAvailability().getId()).toList());
+    }
+
+    /**
+     * Test that an availability wider than the maximum duration, such as an older row, is indexed and removed
+     * without a bucket per day and still matches the offers it overlaps.
+     */
+    @Test
+    public void testMatchIndexWithVeryWideAvailability() {
+        String place = "Wide-" + UUID.randomUUID();
+        Availability availability = new Availability();
+        availability.setId(UUID.randomUUID());
+        availability.setJobCategoryId(UUID.randomUUID());
+        availability.setJobTitle("jobTitle");
+        availability.setPlaceList(List.of(place));
+        availability.setStartDate(date(1, Calendar.JANUARY, 1));
+        availability.setEndDate(date(9999, Calendar.DECEMBER, 31));
+        long from = date(2040, Calendar.JULY, 1).toEpochMilli();
+        long to = date(2040, Calendar.JULY, 31).toEpochMilli();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(2), () -> availabilityMatchIndex.onAvailabilityChanged(AvailabilityChangedEvent.created(availability)));
+        assertEquals(List.of(availability.getId()), availabilityMatchIndex.findMatches(from, to, List.of(place), null, 10).stream().map(AvailabilityMatchIndex.Match::id).toList());
+
+        assertTimeoutPreemptively(Duration.ofSeconds(2), () -> availabilityMatchIndex.onAvailabilityChanged(AvailabilityChangedEvent.deleted(availability.getId())));
+        assertTrue(availabilityMatchIndex.findMatches(from, to, List.of(place), null, 10).isEmpty());
+    }
+
+    /**
+     * Test that the method throws an exception when the job offer has no window.
+     */
+    @Test
+    public void testMatchAvailabilitiesWithoutWindow() {
+        assertThrows(HttpClientErrorException.class, () -> availabilityService.matchAvailabilities(new JobOfferDTO(), null));
+    }
+
+    /**
+     * Test that an update is rejected once the availability has moved past the expected version.
+     */
+    @Test
+    public void testUpdateAvailabilityWithExpectedVersion() {
+        Availability saved = availabilityService.createAvailability(createAvailabilityDTO(2040, Calendar.JANUARY, 1, 2040, Calendar.JANUARY, 31));
+        long version = availabilityService.getAvailabilityVersion(saved.getId());
+
+        AvailabilityDTO update = createAvailabilityDTO(2040, Calendar.JANUARY, 1, 2040, Calendar.JANUARY, 31);
+        update.setId(saved.getId());
+        Availability updated = availabilityService.updateAvailability(update, version);
+        assertEquals(version + 1, updated.getVersion());
+
+        HttpClientErrorException exception = assertThrows(HttpClientErrorException.class, () -> availabilityService.updateAvailability(update, version));
+        assertEquals(HttpStatus.PRECONDITION_FAILED, exception.getStatusCode());
+    }
+
+    /**
+     * Test that the method throws an exception when the token is invalid.
+     */
+    @Test
+    public void testGetAvailabilityPageWithInvalidToken() {
+        // Check that an exception is thrown with status code 400
+        HttpClientErrorException exception = assertThrows(HttpClientErrorException.class, () -> availabilityService.getAvailabilityPage(10, "not-a-token"));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+    }
+
+    /**
+     * Test that the export writes one JSON document per availability.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testExportAvailabilities() throws Exception {
+        Availability availability = availabilityService.createAvailability(createAvailabilityDTO(2034, Calendar.JULY, 1, 2034, Calendar.JULY, 31));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        availabilityService.exportAvailabilities(outputStream);
+        List<String> lines = outputStream.toString(StandardCharsets.UTF_8).lines().toList();
+
+        assertEquals(availabilityRepository.count(), lines.size());
+        assertTrue(lines.stream().allMatch(line -> line.startsWith("{") && line.endsWith("}")));
+        assertTrue(lines.stream().anyMatch(line -> line.contains(availability.getId().toString())));
+    }
+
+    /**
+     * Test that the export reads the availabilities and their places in a single query, bypassing the second-level cache.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testExportAvailabilitiesStatementCountIsConstant() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            availabilityService.createAvailability(createAvailabilityDTO(2034, Calendar.AUGUST, 1, 2034, Calendar.AUGUST, 31));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        availabilityService.exportAvailabilities(outputStream);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getSecondLevelCacheHitCount());
+        assertEquals(0, statistics.getSecondLevelCachePutCount());
+        assertEquals(availabilityRepository.count(), outputStream.toString(StandardCharsets.UTF_8).lines().count());
+    }
+
+    /**
+     * Test that the batch returns the detailed availabilities in request order and fetches each job category once.
+     */
+    @Test
+    public void testGetDetailedAvailabilitiesByIds() {
+        AvailabilityDTO first = createAvailabilityDTO(2036, Calendar.JULY, 1, 2036, Calendar.JULY, 31);
+        AvailabilityDTO second = createAvailabilityDTO(2036, Calendar.JULY, 1, 2036, Calendar.JULY, 31);
+        AvailabilityDTO third = createAvailabilityDTO(2036, Calendar.JULY, 1, 2036, Calendar.JULY, 31);
+        third.setJobCategoryId(first.getJobCategoryId());
+        Availability firstSaved = availabilityService.createAvailability(first);
+        Availability secondSaved = availabilityService.createAvailability(second);
+        Availability thirdSaved = availabilityService.createAvailability(third);
+
+        JobCategoryDTO firstCategory = new JobCategoryDTO();
+        firstCategory.setId(first.getJobCategoryId());
+        JobCategoryDTO secondCategory = new JobCategoryDTO();
+        secondCategory.setId(second.getJobCategoryId());
+        Set<UUID> categoryIds = Set.of(first.getJobCategoryId(), second.getJobCategoryId());
+        given(jobCategoryService.getJobCategoriesByIds(eq(categoryIds), eq("Bearer token"))).willReturn(Map.of(firstCategory.getId(), firstCategory, secondCategory.getId(), secondCategory));
+
+        List<UUID> ids = List.of(thirdSaved.getId(), UUID.randomUUID(), firstSaved.getId(), secondSaved.getId());
+        List<DetailedAvailabilityDTO> result = availabilityService.getDetailedAvailabilitiesByIds(ids, "Bearer token");
+
+        assertEquals(List.of(thirdSaved.getId(), firstSaved.getId(), secondSaved.getId()), result.stream().map(DetailedAvailabilityDTO::getId).toList());
+        assertEquals(firstCategory.getId(), result.get(0).getJobCategory().getId());
+        assertEquals(secondCategory.getId(), result.get(2).getJobCategory().getId());
+        verify(jobCategoryService).getJobCategoriesByIds(eq(categoryIds), eq("Bearer token"));
+    }
+
+    /**
+     * Test that a bulk creation saves the valid availabilities and reports the invalid ones in request order.
+     */
+    @Test
+    public void testCreateAvailabilities() {
+        AvailabilityDTO valid = createAvailabilityDTO(2037, Calendar.MARCH, 1, 2037, Calendar.MARCH, 31);
+        AvailabilityDTO invalid = createAvailabilityDTO(2037, Calendar.MARCH, 1, 2037, Calendar.MARCH, 31);
+        invalid.setJobTitle(null);
+
+        List<BulkItemResult> results = availabilityService.createAvailabilities(List.of(valid, invalid));
+
+        assertEquals(2, results.size());
+        assertEquals(HttpStatus.CREATED.value(), results.get(0).getStatus());
+        assertEquals(HttpStatus.BAD_REQUEST.value(), results.get(1).getStatus());
+        assertNull(results.get(1).getId());
+        assertTrue(availabilityRepository.findById(results.get(0).getId()).isPresent());
+        assertTrue(availabilityService.searchAvailabilities(date(2037, Calendar.MARCH, 15), date(2037, Calendar.MARCH, 16)).stream()
+                .anyMatch(availability -> availability.getId().equals(results.get(0).getId())));
+    }
+
+    /**
+     * Test that a bulk update applies the changes and reports the unknown ids.
+     */
+    @Test
+    public void testUpdateAvailabilities() {
+        Availability saved = availabilityService.createAvailability(createAvailabilityDTO(2037, Calendar.APRIL, 1, 2037, Calendar.APRIL, 30));
+        AvailabilityDTO update = createAvailabilityDTO(2037, Calendar.APRIL, 1, 2037, Calendar.APRIL, 30);
+        update.setId(saved.getId());
+        update.setJobTitle("updatedJobTitle");
+        AvailabilityDTO unknown = createAvailabilityDTO(2037, Calendar.APRIL, 1, 2037, Calendar.APRIL, 30);
+        unknown.setId(UUID.randomUUID());
+
+        List<BulkItemResult> results = availabilityService.updateAvailabilities(List.of(unknown, update));
+
+        assertEquals(HttpStatus.NOT_FOUND.value(), results.get(0).getStatus());
+        assertEquals(HttpStatus.OK.value(), results.get(1).getStatus());
+        assertEquals("updatedJobTitle", availabilityRepository.findById(saved.getId()).orElseThrow().getJobTitle());
+    }
+
+    /**
+     * Test that a bulk deletion removes the existing availabilities and reports the unknown ids.
+     */
+    @Test
+    public void testDeleteAvailabilities() {
+        Availability saved = availabilityService.createAvailability(createAvailabilityDTO(2037, Calendar.MAY, 1, 2037, Calendar.MAY, 31));
+
+        List<BulkItemResult> results = availabilityService.deleteAvailabilities(List.of(saved.getId(), UUID.randomUUID()));
+
+        assertEquals(HttpStatus.OK.value(), results.get(0).getStatus());
+        assertEquals(HttpStatus.NOT_FOUND.value(), results.get(1).getStatus());
+        assertFalse(availabilityRepository.findById(saved.getId()).isPresent());
+        assertThrows(HttpClientErrorException.class, () -> availabilityService.deleteAvailabilities(List.of()));
+    }
+
+    private long countGetAllAvailabilitiesStatements() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        // Read every place list as the JSON serialization would
+        transactionTemplate.executeWithoutResult(status -> availabilityService.getAllAvailabilities().forEach(availability -> availability.getPlaceList().size()));
+        return statistics.getPrepareStatementCount();
+    }
+
+    private AvailabilityDTO createAvailabilityDTO(int startYear, int startMonth, int startDay, int endYear, int endMonth, int endDay) {
+        AvailabilityDTO availability = new AvailabilityDTO();
+        availability.setJobCategoryId(UUID.randomUUID());
+        availability.setJobTitle("jobTitle");
+        availability.setPlaceList(List.of("place1"));
+        availability.setStartDate(date(startYear, startMonth, startDay));
+        availability.setEndDate(date(endYear, endMonth, endDay));
+        return availability;
+    }
+
+    private Instant date(int year, int month, int day) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(year, month, day);
+        return calendar.toInstant();
+    }
 }
@@ -0,0 +1,243 @@
+package fr.polytech.service;
+
+import fr.polytech.model.JobCategoryDTO;
+import fr.polytech.stub.StubJobCategoryServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the job category client against a local stub injecting latency and failures.
+ * The context is rebuilt after each test so that every test starts with a closed circuit.
+ */
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "job-category.client.read-timeout=300ms",
+        "job-category.client.bulkhead.max-concurrent-calls=1",
+        "job-category.client.bulkhead.max-wait=0ms",
+        "job-category.client.circuit-breaker.failure-threshold=2",
+        "job-category.client.circuit-breaker.failure-window-ms=60000",
+        "job-category.client.circuit-breaker.reset-timeout-ms=60000"
+})
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class JobCategoryClientTest {
+
+    private static final StubJobCategoryServer stub;
+
+    static {
+        try {
+            stub = new StubJobCategoryServer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Autowired
+    private JobCategoryClient jobCategoryClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void stubProperties(DynamicPropertyRegistry registry) {
+        registry.add("JOB_CATEGORY_API_URI", () -> "http://job-category-api" + StubJobCategoryServer.PATH);
+        registry.add("spring.cloud.discovery.client.simple.instances.job-category-api[0].uri", stub::getBaseUrl);
+    }
+
+    @AfterEach
+    public void resetStub() {
+        stub.setLatency(Duration.ZERO);
+        stub.setFailing(false);
+        stub.setMalformed(false);
+        stub.setCborSupported(false);
+        stub.resetRequestCount();
+    }
+
+    @AfterAll
+    public static void stopStub() {
+        stub.close();
+    }
+
+    /**
+     * Test that CBOR is used when the API supports it, and JSON otherwise.
+     */
+    @Test
+    public void testGetJobCategoryNegotiatesCbor() {
+        UUID id = UUID.randomUUID();
+        assertEquals("category-" + id, jobCategoryClient.getJobCategory(id, "Bearer token").getBody().getName());
+        assertEquals("application/json", stub.getLastContentType());
+
+        stub.setCborSupported(true);
+        assertEquals("category-" + id, jobCategoryClient.getJobCategory(id, "Bearer token").getBody().getName());
+        assertEquals("application/cbor", stub.getLastContentType());
+    }
+
+    /**
+     * Test that a slow API call is cut by the read timeout.
+     */
+    @Test
+    public void testGetJobCategoryTimesOut() {
+        stub.setLatency(Duration.ofSeconds(2));
+
+        long start = System.nanoTime();
+        assertThrows(ResourceAccessException.class, () -> jobCategoryClient.getJobCategory(UUID.randomUUID(), "Bearer token"));
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(2)) < 0);
+    }
+
+    /**
+     * Test that the last known job category is served without calling the API once the circuit is open.
+     */
+    @Test
+    public void testGetJobCategoryServesLastKnownWhenCircuitIsOpen() {
+        UUID id = UUID.randomUUID();
+        ResponseEntity<JobCategoryDTO> fresh = jobCategoryClient.getJobCategory(id, "Bearer token");
+        assertEquals(HttpStatus.OK, fresh.getStatusCode());
+        String name = fresh.getBody().getName();
+
+        stub.setFailing(true);
+        // The failure is rethrown while the circuit is closed, the one reaching the threshold opens it
+        assertThrows(HttpServerErrorException.class, () -> jobCategoryClient.getJobCategory(id, "Bearer token"));
+        assertEquals(name, jobCategoryClient.getJobCategory(id, "Bearer token").getBody().getName());
+
+        stub.setFailing(false);
+        stub.resetRequestCount();
+        assertEquals(name, jobCategoryClient.getJobCategory(id, "Bearer token").getBody().getName());
+        // Without a last known value, the failure is rethrown
+        assertThrows(RestClientException.class, () -> jobCategoryClient.getJobCategory(UUID.randomUUID(), "Bearer token"));
+        assertEquals(0, stub.getRequestCount());
+    }
+
+    /**
+     * Test that client errors are returned and never open the circuit.
+     */
+    @Test
+    public void testGetJobCategoryWithClientErrorKeepsCircuitClosed() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(HttpStatus.UNAUTHORIZED, jobCategoryClient.getJobCategory(UUID.randomUUID(), "invalid token").getStatusCode());
+        }
+        assertEquals(HttpStatus.OK, jobCategoryClient.getJobCategory(UUID.randomUUID(), "Bearer token").getStatusCode());
+        assertEquals(1, stub.getRequestCount());
+    }
+
+    /**
+     * Test that the calls exceeding the bulkhead are rejected instead of queuing.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testGetJobCategoryRejectedByBulkhead() throws Exception {
+        stub.setLatency(Duration.ofMillis(200));
+
+        List<Future<ResponseEntity<JobCategoryDTO>>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            for (int i = 0; i < 2; i++) {
+                futures.add(executor.submit(() -> jobCategoryClient.getJobCategory(UUID.randomUUID(), "Bearer token")));
+            }
+        }
+
+        int rejected = 0;
+        for (Future<ResponseEntity<JobCategoryDTO>> future : futures) {
+            try {
+                assertEquals(HttpStatus.OK, future.get().getStatusCode());
+            } catch (Exception e) {
+                assertInstanceOf(BulkheadFullException.class, e.getCause());
+                rejected++;
+            }
+        }
+        assertEquals(1, rejected);
+        assertEquals(1, stub.getRequestCount());
+    }
+
+    /**
+     * Test that bulkhead rejections, a local overload, never open the circuit.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testGetJobCategoryBulkheadRejectionsKeepCircuitClosed() throws Exception {
+        stub.setLatency(Duration.ofMillis(300));
+
+        List<Future<ResponseEntity<JobCategoryDTO>>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(3)) {
+            CountDownLatch start = new CountDownLatch(1);
+            for (int i = 0; i < 3; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return jobCategoryClient.getJobCategory(UUID.randomUUID(), "Bearer token");
+                }));
+            }
+            start.countDown();
+        }
+
+        int rejected = 0;
+        for (Future<ResponseEntity<JobCategoryDTO>> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                assertInstanceOf(BulkheadFullException.class, e.getCause());
+                rejected++;
+            }
+        }
+        // As many rejections as the failure threshold
+        assertEquals(2, rejected);
+
+        stub.setLatency(Duration.ZERO);
+        assertEquals(HttpStatus.OK, jobCategoryClient.getJobCategory(UUID.randomUUID(), "Bearer token").getStatusCode());
+        assertEquals(2, stub.getRequestCount());
+    }
+
+    /**
+     * Test that an unreadable response counts towards the failure threshold instead of opening the circuit at once.
+     */
+    @Test
+    public void testGetJobCategoryWithUnreadableResponseKeepsCircuitClosed() {
+        stub.setMalformed(true);
+        assertThrows(RestClientException.class, () -> jobCategoryClient.getJobCategory(UUID.randomUUID(), "Bearer token"));
+
+        stub.setMalformed(false);
+        assertEquals(HttpStatus.OK, jobCategoryClient.getJobCategory(UUID.randomUUID(), "Bearer token").getStatusCode());
+        assertEquals(2, stub.getRequestCount());
+    }
+
+    /**
+     * Test that the API calls are timed and tagged by outcome.
+     */
+    @Test
+    public void testGetJobCategoryIsTimedByOutcome() {
+        jobCategoryClient.getJobCategory(UUID.randomUUID(), "Bearer token");
+        jobCategoryClient.getJobCategory(UUID.randomUUID(), "invalid token");
+
+        Timer success = meterRegistry.find("job.category.api.calls").tag("outcome", "SUCCESS").timer();
+        Timer clientError = meterRegistry.find("job.category.api.calls").tag("outcome", "CLIENT_ERROR").timer();
+        assertNotNull(success);
+        assertNotNull(clientError);
+        assertEquals(1, success.count());
+        assertEquals(1, clientError.count());
+    }
+}
@@ -0,0 +1,196 @@
+package fr.polytech.service;
+
+import fr.polytech.model.JobCategoryDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class JobCategoryServiceTest {
+
+    @Autowired
+    private JobCategoryService jobCategoryService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private RestTemplate restTemplate;
+
+    /**
+     * Test that a job category is fetched once and then served from the cache.
+     */
+    @Test
+    public void testGetJobCategoryByIdIsCached() {
+        UUID id = UUID.randomUUID();
+        JobCategoryDTO jobCategory = new JobCategoryDTO();
+        jobCategory.setId(id);
+        jobCategory.setName("name");
+        given(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(JobCategoryDTO.class), any(Object[].class))).willReturn(ResponseEntity.ok(jobCategory));
+
+        double hitsBefore = meterRegistry.get("cache.gets").tag("cache", "jobCategory").tag("result", "hit").functionCounter().count();
+
+        assertEquals("name", jobCategoryService.getJobCategoryById(id, "Bearer token").getName());
+        assertEquals("name", jobCategoryService.getJobCategoryById(id, "Bearer token").getName());
+
+        verify(restTemplate, times(1)).exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(JobCategoryDTO.class), any(Object[].class));
+        assertEquals(hitsBefore + 1, meterRegistry.get("cache.gets").tag("cache", "jobCategory").tag("result", "hit").functionCounter().count());
+    }
+
+    /**
+     * Test that each distinct job category of a batch is fetched once.
+     */
+    @Test
+    public void testGetJobCategoriesByIds() {
+        UUID firstId = UUID.randomUUID();
+        UUID secondId = UUID.randomUUID();
+        given(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(JobCategoryDTO.class), any(Object[].class))).willAnswer(invocation -> {
+            JobCategoryDTO jobCategory = new JobCategoryDTO();
+            // The id is the URI variable of the templated URI
+            jobCategory.setId(invocation.getArgument(4));
+            return ResponseEntity.ok(jobCategory);
+        });
+
+        Map<UUID, JobCategoryDTO> result = jobCategoryService.getJobCategoriesByIds(List.of(firstId, secondId, firstId), "Bearer token");
+
+        assertEquals(2, result.size());
+        assertEquals(firstId, result.get(firstId).getId());
+        assertEquals(secondId, result.get(secondId).getId());
+        verify(restTemplate, times(2)).exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(JobCategoryDTO.class), any(Object[].class));
+
+        // Served from the cache without calling the API again
+        Map<UUID, JobCategoryDTO> cached = jobCategoryService.getJobCategoriesByIds(List.of(firstId, secondId), "Bearer token");
+        assertEquals(firstId, cached.get(firstId).getId());
+        assertEquals(secondId, cached.get(secondId).getId());
+        verify(restTemplate, times(2)).exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(JobCategoryDTO.class), any(Object[].class));
+    }
+
+    /**
+     * Test that a burst of concurrent misses on the same job category makes a single call, shared by all callers.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testGetJobCategoryByIdCoalescesConcurrentMisses() throws Exception {
+        int callers = 50;
+        UUID id = UUID.randomUUID();
+        JobCategoryDTO jobCategory = new JobCategoryDTO();
+        jobCategory.setId(id);
+        jobCategory.setName("name");
+        CountDownLatch callStarted = new CountDownLatch(1);
+        CountDownLatch releaseCall = new CountDownLatch(1);
+        given(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(JobCategoryDTO.class), any(Object[].class))).willAnswer(invocation -> {
+            callStarted.countDown();
+            releaseCall.await(5, TimeUnit.SECONDS);
+            return ResponseEntity.ok(jobCategory);
+        });
+
+        List<Future<JobCategoryDTO>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CountDownLatch start = new CountDownLatch(1);
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return jobCategoryService.getJobCategoryById(id, "Bearer token");
+                }));
+            }
+            start.countDown();
+            assertTrue(callStarted.await(5, TimeUnit.SECONDS));
+            // Let the other callers reach the call in progress before it returns
+            Thread.sleep(200);
+            releaseCall.countDown();
+            for (Future<JobCategoryDTO> result : results) {
+                assertEquals("name", result.get(5, TimeUnit.SECONDS).getName());
+            }
+        }
+
+        verify(restTemplate, times(1)).exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(JobCategoryDTO.class), any(Object[].class));
+    }
+
+    /**
+     * Test that the error of a shared call reaches every caller of the burst and is not cached.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testGetJobCategoryByIdSharesErrors() throws Exception {
+        UUID id = UUID.randomUUID();
+        CountDownLatch releaseCall = new CountDownLatch(1);
+        given(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(JobCategoryDTO.class), any(Object[].class))).willAnswer(invocation -> {
+            releaseCall.await(5, TimeUnit.SECONDS);
+            throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+        });
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<JobCategoryDTO> first = executor.submit(() -> jobCategoryService.getJobCategoryById(id, "Bearer token"));
+            Future<JobCategoryDTO> second = executor.submit(() -> jobCategoryService.getJobCategoryById(id, "Bearer token"));
+            Thread.sleep(200);
+            releaseCall.countDown();
+            for (Future<JobCategoryDTO> result : List.of(first, second)) {
+                Exception e = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(HttpClientErrorException.class, e.getCause());
+            }
+        }
+        verify(restTemplate, times(1)).exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(JobCategoryDTO.class), any(Object[].class));
+
+        // The next caller tries again
+        assertThrows(HttpClientErrorException.class, () -> jobCategoryService.getJobCategoryById(id, "Bearer token"));
+        verify(restTemplate, times(2)).exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(JobCategoryDTO.class), any(Object[].class));
+    }
+
+    /**
+     * Test that an error thrown by a shared call, not only an exception, reaches every caller of the burst.
+     * The error opens the circuit of the job category client, so the context is not reused by the other tests.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    public void testGetJobCategoryByIdSharesThrownErrors() throws Exception {
+        UUID id = UUID.randomUUID();
+        CountDownLatch releaseCall = new CountDownLatch(1);
+        given(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(JobCategoryDTO.class), any(Object[].class))).willAnswer(invocation -> {
+            releaseCall.await(5, TimeUnit.SECONDS);
+            throw new StackOverflowError("Simulated error");
+        });
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<JobCategoryDTO> first = executor.submit(() -> jobCategoryService.getJobCategoryById(id, "Bearer token"));
+            Future<JobCategoryDTO> second = executor.submit(() -> jobCategoryService.getJobCategoryById(id, "Bearer token"));
+            Thread.sleep(200);
+            releaseCall.countDown();
+            for (Future<JobCategoryDTO> result : List.of(first, second)) {
+                // Fails instead of waiting forever on the shared call
+                assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            }
+        }
+        verify(restTemplate, times(1)).exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(JobCategoryDTO.class), any(Object[].class));
+    }
+}
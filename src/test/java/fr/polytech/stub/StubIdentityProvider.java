@@ -0,0 +1,118 @@
+package fr.polytech.stub;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+
+/**
+ * Local stand-in for the identity provider: it signs tokens with a generated RSA key
+ * and publishes the public key as a JWK set, so the resource server validates real signatures offline.
+ */
+public class StubIdentityProvider implements AutoCloseable {
+
+    public static final String REALM_PATH = "/realms/load-test";
+
+    public static final String JWK_SET_PATH = REALM_PATH + "/protocol/openid-connect/certs";
+
+    private static final String KEY_ID = "stub-key";
+
+    private final HttpServer server;
+
+    private final JwtEncoder jwtEncoder;
+
+    private final byte[] jwkSet;
+
+    public StubIdentityProvider() throws IOException {
+        RSAKey rsaKey;
+        try {
+            rsaKey = new RSAKeyGenerator(2048).keyID(KEY_ID).generate();
+        } catch (JOSEException e) {
+            throw new IllegalStateException(e);
+        }
+        jwtEncoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(rsaKey)));
+        jwkSet = new JWKSet(rsaKey.toPublicJWK()).toString().getBytes(StandardCharsets.UTF_8);
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext(JWK_SET_PATH, this::handleJwkSet);
+        server.start();
+    }
+
+    /**
+     * Get the issuer of the tokens, to configure as the issuer URI of the resource server.
+     *
+     * @return Issuer URI.
+     */
+    public String getIssuerUri() {
+        return "http://localhost:" + server.getAddress().getPort() + REALM_PATH;
+    }
+
+    /**
+     * Get the URI of the JWK set, to configure as the JWK set URI of the resource server.
+     *
+     * @return JWK set URI.
+     */
+    public String getJwkSetUri() {
+        return "http://localhost:" + server.getAddress().getPort() + JWK_SET_PATH;
+    }
+
+    /**
+     * Issue a signed access token.
+     *
+     * @param subject    Subject and preferred username.
+     * @param resourceId Client the roles are granted on.
+     * @param roles      Client roles.
+     * @param ttl        Time to live of the token.
+     * @return Bearer token value, without the Bearer prefix.
+     */
+    public String issueToken(String subject, String resourceId, List<String> roles, Duration ttl) {
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer(getIssuerUri())
+                .subject(subject)
+                .id(UUID.randomUUID().toString())
+                .issuedAt(now)
+                .expiresAt(now.plus(ttl))
+                .claim("preferred_username", subject)
+                .claim("scope", "openid profile")
+                .claim("resource_access", Map.of(resourceId, Map.of("roles", roles)))
+                .build();
+        JwsHeader header = JwsHeader.with(SignatureAlgorithm.RS256).keyId(KEY_ID).build();
+        return jwtEncoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+    }
+
+    private void handleJwkSet(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, jwkSet.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(jwkSet);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
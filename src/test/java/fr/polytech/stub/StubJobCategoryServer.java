@@ -0,0 +1,161 @@
+package fr.polytech.stub;
+
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Local stand-in for the job category API, answering GET /api/v1/job-category/{id}
+ * with an injectable latency and failure mode.
+ */
+public class StubJobCategoryServer implements AutoCloseable {
+
+    public static final String PATH = "/api/v1/job-category";
+
+    private final HttpServer server;
+
+    private final AtomicReference<Duration> latency = new AtomicReference<>(Duration.ZERO);
+
+    private final AtomicBoolean failing = new AtomicBoolean(false);
+
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    private final AtomicBoolean malformed = new AtomicBoolean(false);
+
+    private final AtomicBoolean cborSupported = new AtomicBoolean(false);
+
+    private final AtomicReference<String> lastContentType = new AtomicReference<>();
+
+    private final CBORMapper cborMapper = new CBORMapper();
+
+    public StubJobCategoryServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext(PATH, this::handle);
+        server.start();
+    }
+
+    /**
+     * Get the base URL of the stub.
+     *
+     * @return Base URL, without path.
+     */
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Set the delay applied before each response.
+     *
+     * @param latency Delay.
+     */
+    public void setLatency(Duration latency) {
+        this.latency.set(latency);
+    }
+
+    /**
+     * Make the stub answer every request with a 503.
+     *
+     * @param failing True to fail the requests.
+     */
+    public void setFailing(boolean failing) {
+        this.failing.set(failing);
+    }
+
+    /**
+     * Make the stub answer every request with a 200 whose body cannot be read.
+     *
+     * @param malformed True to send unreadable bodies.
+     */
+    public void setMalformed(boolean malformed) {
+        this.malformed.set(malformed);
+    }
+
+    /**
+     * Make the stub answer in CBOR to the requests accepting it, like a peer supporting the binary format.
+     *
+     * @param cborSupported True to negotiate CBOR.
+     */
+    public void setCborSupported(boolean cborSupported) {
+        this.cborSupported.set(cborSupported);
+    }
+
+    /**
+     * Get the content type of the last successful response.
+     *
+     * @return Content type, null if none was sent.
+     */
+    public String getLastContentType() {
+        return lastContentType.get();
+    }
+
+    /**
+     * Get the number of requests received.
+     *
+     * @return Number of requests.
+     */
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * Reset the number of requests received.
+     */
+    public void resetRequestCount() {
+        requestCount.set(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        try {
+            Thread.sleep(latency.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (failing.get()) {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+            return;
+        }
+
+        String path = exchange.getRequestURI().getPath();
+        String id = path.substring(path.lastIndexOf('/') + 1);
+        String accept = exchange.getRequestHeaders().getFirst("Accept");
+        String contentType;
+        byte[] body;
+        if (malformed.get()) {
+            contentType = "application/json";
+            body = "{\"id\":".getBytes(StandardCharsets.UTF_8);
+        } else if (cborSupported.get() && accept != null && accept.contains("application/cbor")) {
+            contentType = "application/cbor";
+            body = cborMapper.writeValueAsBytes(Map.of("id", id, "name", "category-" + id));
+        } else {
+            contentType = "application/json";
+            body = ("{\"id\":\"" + id + "\",\"name\":\"category-" + id + "\"}").getBytes(StandardCharsets.UTF_8);
+        }
+        lastContentType.set(contentType);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(body);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
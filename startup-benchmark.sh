@@ -0,0 +1,62 @@
+# Time from container start to the first successful request of the availability-api image (built by build-images.sh),
+# started as built, with the class data sharing archive and the ahead-of-time generated context,
+# and started without them (JAVA_OPTS cleared).
+# Usage: ./startup-benchmark.sh [runs per variant, default 5]
+# The application settings default to a local database without configuration server nor Eureka;
+# set STARTUP_ENV_FILE to a docker env file to start against them instead.
+
+RUNS=${1:-5}
+NETWORK=availability-startup
+PORT=18080
+
+docker network create $NETWORK > /dev/null
+docker run -d --rm --name availability-db-startup --network $NETWORK -e POSTGRES_PASSWORD=postgres availability-db > /dev/null
+
+until docker exec availability-db-startup pg_isready -h 127.0.0.1 -U postgres > /dev/null; do
+  sleep 1
+done
+
+if [ -n "$STARTUP_ENV_FILE" ]; then
+  ENV_ARGS="--env-file $STARTUP_ENV_FILE"
+else
+  ENV_ARGS="-e SPRING_CLOUD_CONFIG_ENABLED=false
+    -e EUREKA_CLIENT_REGISTER_WITH_EUREKA=false
+    -e EUREKA_CLIENT_FETCH_REGISTRY=false
+    -e SPRING_DATASOURCE_URL=jdbc:postgresql://availability-db-startup:5432/postgres
+    -e SPRING_DATASOURCE_USERNAME=postgres
+    -e SPRING_DATASOURCE_PASSWORD=postgres
+    -e JWT_ISSUER_URI=http://localhost/realms/benchmark
+    -e JWT_JWK_SET_URI=http://localhost/realms/benchmark/protocol/openid-connect/certs"
+fi
+
+# Start the image with the given JAVA_OPTS and print the milliseconds until the readiness probe answers 200
+measure() {
+  start=$(date +%s%N)
+  docker run -d --rm --name availability-api-startup --network $NETWORK -p $PORT:8080 $ENV_ARGS -e JAVA_OPTS="$1" availability-api > /dev/null
+  until curl -fs -o /dev/null http://localhost:$PORT/actuator/health/readiness; do
+    sleep 0.05
+  done
+  end=$(date +%s%N)
+  docker stop availability-api-startup > /dev/null
+  echo $(( (end - start) / 1000000 ))
+}
+
+# Run a variant several times and print every time and the median
+benchmark() {
+  name=$1
+  times=""
+  for run in $(seq "$RUNS"); do
+    times="$times $(measure "$2")"
+  done
+  median=$(echo $times | tr ' ' '\n' | sort -n | awk '{ t[NR] = $1 } END { print t[int((NR + 1) / 2)] }')
+  echo "$name: median ${median} ms (runs:$times)"
+}
+
+# The first start migrates the database and warms the page cache, it is not measured
+measure "" > /dev/null
+
+benchmark "without AOT and CDS" ""
+benchmark "with AOT and CDS" "-XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true"
+
+docker stop availability-db-startup > /dev/null
+docker network rm $NETWORK > /dev/null